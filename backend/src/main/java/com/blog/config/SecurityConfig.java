@@ -71,6 +71,10 @@ public class SecurityConfig {
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         .requestMatchers("/uploads/**").permitAll()
 
+                        // 运行指标（缓存命中率等）仅管理员可见
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         // 其他所有请求需要认证
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,49 @@
+package com.blog.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 每请求SQL语句数统计过滤器
+ *
+ * 功能说明：
+ * - 记录每个接口执行的 SQL 语句数（DEBUG 日志）
+ * - 超过阈值时输出 WARN 日志，便于在开发和压测中及时发现重新出现的 N+1 查询
+ * - 位于过滤器链最外层，JWT 认证时加载用户的查询也计算在内
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    @Value("${blog.sql.warn-threshold:10}")
+    private int warnThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int count = SqlStatementCounter.getCount();
+            if (count > warnThreshold) {
+                log.warn("SQL语句数超过阈值 - {} {}: {} 条（阈值 {}）",
+                        request.getMethod(), request.getRequestURI(), count, warnThreshold);
+            } else {
+                log.debug("SQL语句数 - {} {}: {} 条", request.getMethod(), request.getRequestURI(), count);
+            }
+            SqlStatementCounter.clear();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.blog.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * SQL语句计数器
+ *
+ * 功能说明：
+ * - 作为 Hibernate StatementInspector 注册（hibernate.session_factory.statement_inspector），
+ *   统计当前线程执行的 SQL 语句数
+ * - 由 SqlStatementCountFilter 在每个请求开始时清零、结束时读取，用于发现 N+1 查询
+ * - 只统计经过 Hibernate 的语句，JdbcTemplate 直接执行的批量语句不在统计范围内
+ *
+ * 注意：该类由 Hibernate 实例化，不是 Spring Bean，计数保存在静态 ThreadLocal 中
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * 清零当前线程的计数
+     */
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * 获取当前线程自上次清零以来执行的 SQL 语句数
+     */
+    public static int getCount() {
+        return COUNT.get()[0];
+    }
+
+    /**
+     * 清除当前线程的计数状态（请求结束时调用，避免线程复用时残留）
+     */
+    public static void clear() {
+        COUNT.remove();
+    }
+}
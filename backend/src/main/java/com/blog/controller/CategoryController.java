@@ -1,12 +1,18 @@
 package com.blog.controller;
 
+import com.blog.dto.CursorPageDTO;
+import com.blog.dto.PostSummaryDTO;
 import com.blog.model.Category;
 import com.blog.service.CategoryService;
+import com.blog.service.ChangeWatermarkService;
+import com.blog.service.ChangeWatermarkService.Scope;
+import com.blog.service.PostService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,16 +24,24 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final PostService postService;
+    private final ChangeWatermarkService watermarkService;
 
     @GetMapping
     @Operation(summary = "获取所有分类")
-    public ResponseEntity<List<Category>> getAllCategories() {
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.CATEGORIES)) {
+            return null;
+        }
         return ResponseEntity.ok(categoryService.getAllCategories());
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "根据ID获取分类")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id, WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.CATEGORIES)) {
+            return null;
+        }
         return ResponseEntity.ok(categoryService.getCategoryById(id));
     }
 
@@ -51,4 +65,17 @@ public class CategoryController {
         categoryService.deleteCategory(id);
         return ResponseEntity.noContent().build();
     }
+
+    @GetMapping("/{id}/posts/cursor")
+    @Operation(summary = "游标分页获取分类下的文章")
+    public ResponseEntity<CursorPageDTO<PostSummaryDTO>> getPostsByCategoryCursor(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
+        return ResponseEntity.ok(postService.getPostsByCategoryCursor(id, cursor, size));
+    }
 }
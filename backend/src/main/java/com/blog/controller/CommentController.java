@@ -2,6 +2,7 @@ package com.blog.controller;
 
 import com.blog.dto.CommentDTO;
 import com.blog.dto.CreateCommentRequest;
+import com.blog.dto.CursorPageDTO;
 import com.blog.service.CommentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -35,6 +36,21 @@ public class CommentController {
         return ResponseEntity.ok(commentService.getCommentsByPostId(postId, pageable));
     }
 
+    @GetMapping("/{id}/replies")
+    @Operation(summary = "游标分页展开评论的全部回复（深度优先顺序）")
+    public ResponseEntity<CursorPageDTO<CommentDTO>> getReplies(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(commentService.getReplies(id, cursor, size));
+    }
+
+    @GetMapping("/{id}/descendants/count")
+    @Operation(summary = "获取评论下所有层级的回复数量")
+    public ResponseEntity<Long> getDescendantCount(@PathVariable Long id) {
+        return ResponseEntity.ok(commentService.getDescendantCount(id));
+    }
+
     @PostMapping
     @Operation(summary = "创建评论")
     public ResponseEntity<CommentDTO> createComment(
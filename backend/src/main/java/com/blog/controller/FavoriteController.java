@@ -1,6 +1,6 @@
 package com.blog.controller;
 
-import com.blog.dto.PostDTO;
+import com.blog.dto.PostSummaryDTO;
 import com.blog.service.FavoriteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -62,7 +62,7 @@ public class FavoriteController {
      */
     @GetMapping
     @Operation(summary = "获取我的收藏")
-    public ResponseEntity<Page<PostDTO>> getMyFavorites(
+    public ResponseEntity<Page<PostSummaryDTO>> getMyFavorites(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             Authentication authentication) {
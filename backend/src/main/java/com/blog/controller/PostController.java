@@ -1,8 +1,19 @@
 package com.blog.controller;
 
+import com.blog.dto.ArchiveCalendarDTO;
 import com.blog.dto.ArchiveDTO;
 import com.blog.dto.CreatePostRequest;
+import com.blog.dto.CursorPageDTO;
+import com.blog.dto.EngagementStatusDTO;
+import com.blog.dto.FacetedSearchDTO;
 import com.blog.dto.PostDTO;
+import com.blog.dto.PostSummaryDTO;
+import com.blog.dto.RelatedPostDTO;
+import com.blog.dto.SuggestionDTO;
+import com.blog.search.FacetFilter;
+import com.blog.search.SuggestionIndex;
+import com.blog.service.ChangeWatermarkService;
+import com.blog.service.ChangeWatermarkService.Scope;
 import com.blog.service.PostService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,10 +23,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -26,14 +40,20 @@ import java.util.List;
 public class PostController {
 
     private final PostService postService;
+    private final ChangeWatermarkService watermarkService;
+    private final SuggestionIndex suggestionIndex;
 
     @GetMapping
     @Operation(summary = "获取所有已发布文章（分页）")
-    public ResponseEntity<Page<PostDTO>> getAllPosts(
+    public ResponseEntity<Page<PostSummaryDTO>> getAllPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") String direction) {
+            @RequestParam(defaultValue = "DESC") String direction,
+            WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
 
         Sort.Direction sortDirection = direction.equalsIgnoreCase("ASC") ?
                 Sort.Direction.ASC : Sort.Direction.DESC;
@@ -42,11 +62,52 @@ public class PostController {
         return ResponseEntity.ok(postService.getAllPublishedPosts(pageable));
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页获取已发布文章", description = "按发布时间倒序，传入上一页返回的nextCursor获取下一页，不返回总数")
+    public ResponseEntity<CursorPageDTO<PostSummaryDTO>> getPostsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
+        return ResponseEntity.ok(postService.getPublishedPostsByCursor(cursor, size));
+    }
+
+    @GetMapping("/authors/{authorId}/cursor")
+    @Operation(summary = "游标分页获取指定作者的文章")
+    public ResponseEntity<CursorPageDTO<PostSummaryDTO>> getPostsByAuthorCursor(
+            @PathVariable Long authorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
+        return ResponseEntity.ok(postService.getPostsByAuthorCursor(authorId, cursor, size));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "根据ID获取文章详情")
-    public ResponseEntity<PostDTO> getPostById(@PathVariable Long id) {
+    public ResponseEntity<PostDTO> getPostById(@PathVariable Long id, WebRequest webRequest) {
+        // 客户端缓存仍然有效时直接返回304，不加载文章（确认文章存在后仍计一次浏览）
+        if (watermarkService.checkPostNotModified(webRequest, id)) {
+            postService.incrementViewsIfExists(id);
+            return null;
+        }
+        // 先确认文章存在再计数，避免为不存在的ID累积浏览量
+        PostDTO post = postService.getPostById(id);
         postService.incrementViews(id);
-        return ResponseEntity.ok(postService.getPostById(id));
+        return ResponseEntity.ok(post);
+    }
+
+    @GetMapping("/{id}/related")
+    @Operation(summary = "获取相关文章")
+    public ResponseEntity<List<RelatedPostDTO>> getRelatedPosts(@PathVariable Long id, WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
+        return ResponseEntity.ok(postService.getRelatedPosts(id));
     }
 
     @PostMapping
@@ -75,23 +136,95 @@ public class PostController {
 
     @GetMapping("/search")
     @Operation(summary = "搜索文章")
-    public ResponseEntity<Page<PostDTO>> searchPosts(
+    public ResponseEntity<Page<PostSummaryDTO>> searchPosts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
         return ResponseEntity.ok(postService.searchPosts(keyword, pageable));
     }
 
+    @GetMapping("/search/faceted")
+    @Operation(summary = "分面搜索文章（按标签、分类、作者、日期筛选，并返回各分面的命中数）")
+    public ResponseEntity<FacetedSearchDTO> facetedSearch(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) List<Long> tagIds,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long authorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
+        FacetFilter filter = new FacetFilter(tagIds, categoryId, authorId, from, to);
+        return ResponseEntity.ok(postService.facetedSearch(keyword, filter, PageRequest.of(page, size)));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "搜索框输入提示（文章标题和标签）")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestionIndex.suggest(prefix, limit));
+    }
+
     @GetMapping("/popular")
     @Operation(summary = "获取热门文章")
-    public ResponseEntity<List<PostDTO>> getPopularPosts() {
+    public ResponseEntity<List<PostSummaryDTO>> getPopularPosts(WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.SIDEBAR)) {
+            return null;
+        }
         return ResponseEntity.ok(postService.getPopularPosts());
     }
 
+    @GetMapping("/trending")
+    @Operation(summary = "获取热门趋势文章（按时间衰减的浏览、评论、点赞、收藏加权）")
+    public ResponseEntity<List<PostSummaryDTO>> getTrendingPosts(
+            @RequestParam(defaultValue = "week") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(postService.getTrendingPosts(window, null, null, limit));
+    }
+
+    @GetMapping("/trending/categories/{categoryId}")
+    @Operation(summary = "获取分类内的热门趋势文章")
+    public ResponseEntity<List<PostSummaryDTO>> getTrendingPostsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "week") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(postService.getTrendingPosts(window, categoryId, null, limit));
+    }
+
+    @GetMapping("/trending/tags/{tagId}")
+    @Operation(summary = "获取标签下的热门趋势文章")
+    public ResponseEntity<List<PostSummaryDTO>> getTrendingPostsByTag(
+            @PathVariable Long tagId,
+            @RequestParam(defaultValue = "week") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(postService.getTrendingPosts(window, null, tagId, limit));
+    }
+
+    @GetMapping("/engagement")
+    @Operation(summary = "批量获取当前用户对多篇文章的点赞、收藏状态")
+    public ResponseEntity<List<EngagementStatusDTO>> getEngagementStatus(
+            @RequestParam List<Long> ids,
+            Authentication authentication) {
+        String username = authentication == null ? null : authentication.getName();
+        return ResponseEntity.ok(postService.getEngagementStatus(ids, username));
+    }
+
     @GetMapping("/recent")
     @Operation(summary = "获取最新文章")
-    public ResponseEntity<List<PostDTO>> getRecentPosts() {
+    public ResponseEntity<List<PostSummaryDTO>> getRecentPosts(WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.SIDEBAR)) {
+            return null;
+        }
         return ResponseEntity.ok(postService.getRecentPosts());
     }
 
@@ -99,7 +232,7 @@ public class PostController {
 
     @GetMapping("/drafts")
     @Operation(summary = "获取我的草稿")
-    public ResponseEntity<Page<PostDTO>> getMyDrafts(
+    public ResponseEntity<Page<PostSummaryDTO>> getMyDrafts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             Authentication authentication) {
@@ -111,7 +244,7 @@ public class PostController {
 
     @GetMapping("/my-posts")
     @Operation(summary = "获取我的所有文章")
-    public ResponseEntity<Page<PostDTO>> getMyAllPosts(
+    public ResponseEntity<Page<PostSummaryDTO>> getMyAllPosts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             Authentication authentication) {
@@ -125,19 +258,49 @@ public class PostController {
 
     @GetMapping("/archives")
     @Operation(summary = "获取归档统计")
-    public ResponseEntity<List<ArchiveDTO>> getArchives() {
+    public ResponseEntity<List<ArchiveDTO>> getArchives(WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
         return ResponseEntity.ok(postService.getArchiveStats());
     }
 
+    @GetMapping("/archives/{year}/calendar")
+    @Operation(summary = "获取指定年份每天的文章数（日历热力图）")
+    public ResponseEntity<ArchiveCalendarDTO> getArchiveCalendar(@PathVariable Integer year, WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
+        return ResponseEntity.ok(postService.getArchiveCalendar(year));
+    }
+
     @GetMapping("/archives/{year}/{month}")
     @Operation(summary = "获取指定年月的文章")
-    public ResponseEntity<Page<PostDTO>> getPostsByYearMonth(
+    public ResponseEntity<Page<PostSummaryDTO>> getPostsByYearMonth(
             @PathVariable Integer year,
             @PathVariable Integer month,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         return ResponseEntity.ok(postService.getPostsByYearMonth(year, month, pageable));
     }
+
+    @GetMapping("/archives/{year}/{month}/cursor")
+    @Operation(summary = "游标分页获取指定年月的文章")
+    public ResponseEntity<CursorPageDTO<PostSummaryDTO>> getPostsByYearMonthCursor(
+            @PathVariable Integer year,
+            @PathVariable Integer month,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
+        return ResponseEntity.ok(postService.getPostsByYearMonthCursor(year, month, cursor, size));
+    }
 }
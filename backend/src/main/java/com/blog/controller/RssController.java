@@ -1,5 +1,7 @@
 package com.blog.controller;
 
+import com.blog.service.ChangeWatermarkService;
+import com.blog.service.ChangeWatermarkService.Scope;
 import com.blog.service.RssService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -7,6 +9,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * RSS订阅控制器
@@ -19,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 public class RssController {
 
     private final RssService rssService;
+    private final ChangeWatermarkService watermarkService;
 
     /**
      * 获取全站RSS订阅源
@@ -26,7 +30,10 @@ public class RssController {
      */
     @GetMapping(value = "/feed.xml", produces = MediaType.APPLICATION_XML_VALUE)
     @Operation(summary = "获取全站RSS订阅源", description = "返回最新发布的文章RSS Feed")
-    public ResponseEntity<String> getRssFeed() {
+    public ResponseEntity<String> getRssFeed(WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
         String rssXml = rssService.generateRssFeed();
         return ResponseEntity.ok()
             .contentType(MediaType.APPLICATION_XML)
@@ -41,7 +48,10 @@ public class RssController {
      */
     @GetMapping(value = "/category/{categoryId}.xml", produces = MediaType.APPLICATION_XML_VALUE)
     @Operation(summary = "获取分类RSS订阅源", description = "返回指定分类的文章RSS Feed")
-    public ResponseEntity<String> getCategoryRssFeed(@PathVariable Long categoryId) {
+    public ResponseEntity<String> getCategoryRssFeed(@PathVariable Long categoryId, WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
         String rssXml = rssService.generateCategoryRssFeed(categoryId);
         return ResponseEntity.ok()
             .contentType(MediaType.APPLICATION_XML)
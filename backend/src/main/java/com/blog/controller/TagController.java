@@ -1,7 +1,10 @@
 package com.blog.controller;
 
-import com.blog.dto.PostDTO;
+import com.blog.dto.CursorPageDTO;
+import com.blog.dto.PostSummaryDTO;
 import com.blog.dto.TagDTO;
+import com.blog.service.ChangeWatermarkService;
+import com.blog.service.ChangeWatermarkService.Scope;
 import com.blog.service.PostService;
 import com.blog.service.TagService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,6 +16,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -34,14 +38,21 @@ public class TagController {
 
     private final TagService tagService;
     private final PostService postService;
+    private final ChangeWatermarkService watermarkService;
 
     /**
-     * 获取所有标签
+     * 按名称分页获取所有标签
      */
     @GetMapping
     @Operation(summary = "获取所有标签")
-    public ResponseEntity<List<TagDTO>> getAllTags() {
-        return ResponseEntity.ok(tagService.getAllTags());
+    public ResponseEntity<Page<TagDTO>> getAllTags(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.TAGS)) {
+            return null;
+        }
+        return ResponseEntity.ok(tagService.getAllTags(PageRequest.of(page, size)));
     }
 
     /**
@@ -49,7 +60,10 @@ public class TagController {
      */
     @GetMapping("/popular")
     @Operation(summary = "获取热门标签")
-    public ResponseEntity<List<TagDTO>> getPopularTags() {
+    public ResponseEntity<List<TagDTO>> getPopularTags(WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.TAGS)) {
+            return null;
+        }
         return ResponseEntity.ok(tagService.getPopularTags());
     }
 
@@ -58,7 +72,10 @@ public class TagController {
      */
     @GetMapping("/search")
     @Operation(summary = "搜索标签")
-    public ResponseEntity<List<TagDTO>> searchTags(@RequestParam String keyword) {
+    public ResponseEntity<List<TagDTO>> searchTags(@RequestParam String keyword, WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.TAGS)) {
+            return null;
+        }
         return ResponseEntity.ok(tagService.searchTags(keyword));
     }
 
@@ -67,12 +84,32 @@ public class TagController {
      */
     @GetMapping("/{tagId}/posts")
     @Operation(summary = "根据标签获取文章")
-    public ResponseEntity<Page<PostDTO>> getPostsByTag(
+    public ResponseEntity<Page<PostSummaryDTO>> getPostsByTag(
             @PathVariable Long tagId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         return ResponseEntity.ok(postService.getPostsByTag(tagId, pageable));
     }
+
+    /**
+     * 根据标签ID游标分页获取文章列表
+     */
+    @GetMapping("/{tagId}/posts/cursor")
+    @Operation(summary = "根据标签游标分页获取文章")
+    public ResponseEntity<CursorPageDTO<PostSummaryDTO>> getPostsByTagCursor(
+            @PathVariable Long tagId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        if (watermarkService.checkNotModified(webRequest, Scope.POSTS)) {
+            return null;
+        }
+        return ResponseEntity.ok(postService.getPostsByTagCursor(tagId, cursor, size));
+    }
 }
@@ -0,0 +1,34 @@
+package com.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 归档日历数据传输对象
+ * 某一年每天发布的文章数（用于日历热力图）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveCalendarDTO {
+    /**
+     * 年份
+     */
+    private Integer year;
+
+    /**
+     * 该年的文章总数
+     */
+    private Long total;
+
+    /**
+     * 单日最多文章数（用于热力图分级）
+     */
+    private Integer maxCount;
+
+    /**
+     * 每天的文章数，下标 0 为 1月1日，长度为该年天数（365 或 366）
+     */
+    private int[] counts;
+}
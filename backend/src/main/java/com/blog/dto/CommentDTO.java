@@ -17,7 +17,13 @@ public class CommentDTO {
     private String username;
     private String userAvatar;
     private Long parentId;
+    /** 评论深度（根评论为0） */
+    private Integer depth;
     private String content;
     private LocalDateTime createdAt;
     private List<CommentDTO> replies;
+    /** 是否有未展开的回复（超过最大深度或每节点回复数上限） */
+    private Boolean truncated;
+    /** 未展开的直接回复数 */
+    private Integer hiddenReplyCount;
 }
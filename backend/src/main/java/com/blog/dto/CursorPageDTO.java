@@ -0,0 +1,24 @@
+package com.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果DTO
+ *
+ * 说明：
+ * - 与 Page 不同，不包含总数和总页数，不执行 COUNT(*) 查询
+ * - nextCursor 为不透明字符串，原样传回即可获取下一页；hasNext 为 false 时为 null
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -0,0 +1,29 @@
+package com.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文章互动状态数据传输对象
+ * 当前用户是否点赞、收藏了某篇文章（列表卡片批量查询）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EngagementStatusDTO {
+    /**
+     * 文章ID
+     */
+    private Long postId;
+
+    /**
+     * 是否已点赞
+     */
+    private Boolean liked;
+
+    /**
+     * 是否已收藏
+     */
+    private Boolean favorited;
+}
@@ -0,0 +1,23 @@
+package com.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 分面计数DTO（标签或分类）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDTO {
+
+    /** 标签ID或分类ID */
+    private Long id;
+
+    /** 标签名称或分类名称 */
+    private String name;
+
+    /** 命中的文章数量 */
+    private Long count;
+}
@@ -0,0 +1,30 @@
+package com.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * 分面搜索结果DTO
+ * 当前页文章以及全部命中文章在各标签、分类、月份上的分布
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedSearchDTO {
+
+    /** 当前页文章 */
+    private Page<PostSummaryDTO> results;
+
+    /** 标签分布（按数量从多到少，最多 blog.search.facets.max-tags 个） */
+    private List<FacetCountDTO> tags;
+
+    /** 分类分布（按数量从多到少） */
+    private List<FacetCountDTO> categories;
+
+    /** 月份分布（按时间倒序） */
+    private List<ArchiveDTO> months;
+}
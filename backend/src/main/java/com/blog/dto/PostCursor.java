@@ -0,0 +1,57 @@
+package com.blog.dto;
+
+import com.blog.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 文章列表游标
+ *
+ * 说明：
+ * - 记录上一页最后一篇文章的 (createdAt, id)，下一页从该位置之后继续查找
+ * - 对外编码为 Base64URL 字符串，客户端不应解析其内容
+ * - 第一页使用 {@link #FIRST}，其位置比任何文章都靠前
+ */
+public record PostCursor(LocalDateTime createdAt, Long id) {
+
+    /** 第一页的起始位置 */
+    public static final PostCursor FIRST = new PostCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 根据文章的创建时间和ID生成游标
+     */
+    public static PostCursor of(PostSummaryDTO post) {
+        return new PostCursor(post.getCreatedAt(), post.getId());
+    }
+
+    /**
+     * 编码为不透明的游标字符串
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串，为空时返回第一页游标
+     *
+     * @throws BadRequestException 游标格式不正确
+     */
+    public static PostCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            return new PostCursor(LocalDateTime.parse(raw.substring(0, index)), Long.parseLong(raw.substring(index + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("无效的分页游标");
+        }
+    }
+}
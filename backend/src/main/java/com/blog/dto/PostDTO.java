@@ -26,4 +26,5 @@ public class PostDTO {
     private String tags;
     private Long commentCount;
     private Long likeCount;
+    private Long favoriteCount;
 }
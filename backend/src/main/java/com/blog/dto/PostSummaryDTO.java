@@ -0,0 +1,65 @@
+package com.blog.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文章列表卡片DTO
+ *
+ * 说明：
+ * - 列表接口（首页、搜索、标签、归档、收藏等）专用，不包含文章正文 content
+ * - 由 JPQL 构造器表达式直接查询生成，不加载 Post 实体，也不读取 TEXT 正文列
+ * - 完整正文仅通过 /posts/{id} 返回 PostDTO
+ */
+@Data
+@NoArgsConstructor
+public class PostSummaryDTO {
+    private Long id;
+    private String title;
+    private String summary;
+    private String coverImage;
+    private Long categoryId;
+    private String categoryName;
+    private Long authorId;
+    private String authorName;
+    private Boolean published;
+    private Integer views;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private String tags;
+    private Long commentCount;
+    private Long likeCount;
+    private Long favoriteCount;
+
+    /**
+     * 搜索结果摘要片段（HTML 转义后的正文片段，命中词以 <mark> 包裹；仅搜索接口返回）
+     */
+    private String snippet;
+
+    /**
+     * JPQL 构造器表达式使用的构造函数（参数顺序见 PostRepository.SUMMARY_SELECT）
+     */
+    public PostSummaryDTO(Long id, String title, String summary, String coverImage,
+                          Long categoryId, String categoryName, Long authorId, String authorName,
+                          Boolean published, Integer views, LocalDateTime createdAt, LocalDateTime updatedAt,
+                          String tags, Integer commentCount, Integer likeCount, Integer favoriteCount) {
+        this.id = id;
+        this.title = title;
+        this.summary = summary;
+        this.coverImage = coverImage;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.authorId = authorId;
+        this.authorName = authorName;
+        this.published = published;
+        this.views = views;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.tags = tags;
+        this.commentCount = commentCount.longValue();
+        this.likeCount = likeCount.longValue();
+        this.favoriteCount = favoriteCount.longValue();
+    }
+}
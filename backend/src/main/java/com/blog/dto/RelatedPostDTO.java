@@ -0,0 +1,26 @@
+package com.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 相关文章DTO
+ * 文章详情页下方"相关文章"区块使用，数据全部来自内存
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatedPostDTO {
+    private Long id;
+    private String title;
+    private Long categoryId;
+    private LocalDateTime createdAt;
+
+    /**
+     * 相似度得分（标签 Jaccard 相似度，按同分类、发布时间接近程度加权）
+     */
+    private Double score;
+}
@@ -0,0 +1,25 @@
+package com.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搜索框输入提示DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+
+    public enum Type {
+        /** 文章标题，postId 为文章ID */
+        POST,
+        /** 标签名称，postId 为 null */
+        TAG
+    }
+
+    private Type type;
+    private String text;
+    private Long postId;
+}
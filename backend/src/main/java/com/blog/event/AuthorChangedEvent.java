@@ -0,0 +1,12 @@
+package com.blog.event;
+
+/**
+ * 作者资料变更事件
+ *
+ * 说明：由 UserService 在用户昵称变化时发布。作者名称会冗余出现在文章详情和列表卡片中，
+ * 监听方需要同时失效与文章相关的缓存
+ *
+ * @param userId 用户ID
+ */
+public record AuthorChangedEvent(Long userId) {
+}
@@ -0,0 +1,12 @@
+package com.blog.event;
+
+/**
+ * 分类变更事件
+ *
+ * 说明：由 CategoryService 在创建、修改、删除分类时发布。分类名称会冗余出现在文章详情和列表卡片中，
+ * 监听方需要同时失效与文章相关的缓存
+ *
+ * @param categoryId 分类ID
+ */
+public record CategoryChangedEvent(Long categoryId) {
+}
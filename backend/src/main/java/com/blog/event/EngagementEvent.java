@@ -0,0 +1,22 @@
+package com.blog.event;
+
+/**
+ * 文章互动事件（评论、点赞、收藏的增减）
+ *
+ * 说明：
+ * - 由评论/点赞/收藏服务在对应冗余计数变化后发布
+ * - 监听方应使用 @TransactionalEventListener 在事务提交后处理
+ *
+ * @param postId 文章ID
+ * @param userId 评论作者、点赞或收藏的用户ID
+ * @param type 互动类型
+ * @param delta 计数变化量（+1 或 -1）
+ */
+public record EngagementEvent(Long postId, Long userId, Type type, int delta) {
+
+    public enum Type {
+        COMMENT,
+        LIKE,
+        FAVORITE
+    }
+}
@@ -0,0 +1,20 @@
+package com.blog.event;
+
+/**
+ * 文章变更事件
+ *
+ * 说明：
+ * - 由 PostService 在创建、更新（含发布状态变化）、删除文章时发布
+ * - 监听方应使用 @TransactionalEventListener 在事务提交后处理，避免读到未提交的数据
+ *
+ * @param postId 文章ID
+ * @param type 变更类型
+ */
+public record PostChangedEvent(Long postId, Type type) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
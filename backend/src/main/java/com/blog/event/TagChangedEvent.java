@@ -0,0 +1,13 @@
+package com.blog.event;
+
+/**
+ * 标签变更事件（新建标签或使用次数变化）
+ *
+ * 说明：由 TagService 发布，携带变更后的名称和使用次数，监听方无需回查数据库
+ *
+ * @param tagId 标签ID
+ * @param name 标签名称
+ * @param useCount 变更后的使用次数
+ */
+public record TagChangedEvent(Long tagId, String name, int useCount) {
+}
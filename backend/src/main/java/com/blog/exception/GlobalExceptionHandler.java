@@ -3,6 +3,7 @@ package com.blog.exception;
 import com.blog.dto.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -32,8 +33,9 @@ import java.util.Map;
  * 4. AccessDeniedException - 权限不足 (403)
  * 5. MethodArgumentNotValidException - 参数验证失败 (400)
  * 6. MaxUploadSizeExceededException - 文件上传超限 (400)
- * 7. RuntimeException - 运行时异常 (400)
- * 8. Exception - 其他未知异常 (500)
+ * 7. ServiceUnavailableException - 服务暂不可用 (503)
+ * 8. RuntimeException - 运行时异常 (400)
+ * 9. Exception - 其他未知异常 (500)
  *
  * @RestControllerAdvice 注解说明：
  * - 自动应用于所有@RestController
@@ -200,6 +202,31 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    /**
+     * 处理服务暂不可用异常
+     *
+     * 触发场景：内存索引在启动后尚未加载完成
+     * 返回状态码：503 Service Unavailable，并通过 Retry-After 提示客户端稍后重试
+     *
+     * @param ex 服务暂不可用异常
+     * @param request HTTP请求对象
+     * @return 标准化错误响应
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(
+            ServiceUnavailableException ex, HttpServletRequest request) {
+        log.warn("Service unavailable: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(error);
+    }
+
     /**
      * 处理一般运行时异常
      *
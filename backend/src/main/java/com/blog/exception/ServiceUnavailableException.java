@@ -0,0 +1,17 @@
+package com.blog.exception;
+
+/**
+ * 服务暂不可用异常
+ * 当依赖的内存索引尚未加载完成（如启动后的重建期间）时抛出此异常
+ * 会被GlobalExceptionHandler捕获并返回503状态码，客户端可稍后重试
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    /**
+     * 构造函数
+     * @param message 错误消息
+     */
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
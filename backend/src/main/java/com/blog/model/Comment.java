@@ -16,7 +16,9 @@ import java.time.LocalDateTime;
     @Index(name = "idx_parent", columnList = "parent_id"),
     @Index(name = "idx_created_at", columnList = "createdAt"),
     @Index(name = "idx_post_deleted_parent", columnList = "post_id, deleted, parent_id"),
-    @Index(name = "idx_parent_deleted", columnList = "parent_id, deleted")
+    @Index(name = "idx_parent_deleted", columnList = "parent_id, deleted"),
+    @Index(name = "idx_path", columnList = "path"),
+    @Index(name = "idx_post_path", columnList = "post_id, path")
 })
 @Data
 @NoArgsConstructor
@@ -49,4 +51,14 @@ public class Comment {
 
     @Column(nullable = false)
     private Boolean deleted = false;
+
+    /**
+     * 物化路径（根评论到本评论的ID链，编码规则见 CommentPath）
+     * 插入后才能拿到自增ID，因此在同一事务内保存后回填
+     */
+    @Column(length = CommentPath.MAX_LENGTH)
+    private String path;
+
+    /** 评论深度（根评论为0） */
+    private Integer depth;
 }
@@ -0,0 +1,86 @@
+package com.blog.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 评论物化路径工具
+ *
+ * 说明：
+ * - 路径由根评论到当前评论的ID链组成，每段为定长 base36 编码的评论ID加 '/' 结尾，
+ *   例如ID为 1 -> 36 -> 40 的评论路径为 "0000001/0000010/0000014/"
+ * - 定长编码保证字符串字典序与深度优先遍历顺序（同层按ID，即按创建顺序）一致
+ * - 节点 P 的所有子孙满足 P < path < upperBound(P)，可直接使用 path 索引做范围扫描
+ */
+public final class CommentPath {
+
+    /** 每段ID的编码长度（base36，7位可表示约 780 亿） */
+    public static final int SEGMENT_WIDTH = 7;
+
+    /** 路径列最大长度 */
+    public static final int MAX_LENGTH = 1000;
+
+    private static final char SEPARATOR = '/';
+
+    private CommentPath() {
+    }
+
+    /**
+     * 生成子评论路径
+     *
+     * @param parentPath 父评论路径，根评论传 null
+     * @param id 当前评论ID
+     */
+    public static String child(String parentPath, Long id) {
+        String segment = Long.toString(id, Character.MAX_RADIX);
+        StringBuilder path = new StringBuilder(parentPath != null ? parentPath : "");
+        for (int i = segment.length(); i < SEGMENT_WIDTH; i++) {
+            path.append('0');
+        }
+        return path.append(segment).append(SEPARATOR).toString();
+    }
+
+    /**
+     * 根据路径计算深度（根评论为0）
+     */
+    public static int depth(String path) {
+        return path.length() / (SEGMENT_WIDTH + 1) - 1;
+    }
+
+    /**
+     * 子孙路径范围的上界（不含）
+     *
+     * 说明：将结尾的 '/' 替换为字典序紧随其后的 '0'
+     */
+    public static String upperBound(String path) {
+        return path.substring(0, path.length() - 1) + (char) (SEPARATOR + 1);
+    }
+
+    /**
+     * 祖先评论的路径（由根评论到父评论，不含自身）
+     */
+    public static List<String> ancestors(String path) {
+        List<String> ancestors = new ArrayList<>();
+        for (int end = SEGMENT_WIDTH + 1; end < path.length(); end += SEGMENT_WIDTH + 1) {
+            ancestors.add(path.substring(0, end));
+        }
+        return ancestors;
+    }
+
+    /**
+     * 判断父评论下是否还能追加一层回复
+     */
+    public static boolean canAppendChild(String parentPath) {
+        return parentPath.length() + SEGMENT_WIDTH + 1 <= MAX_LENGTH;
+    }
+
+    /**
+     * 校验字符串是否为 ancestor 的子孙路径（用于校验客户端传回的游标）
+     */
+    public static boolean isDescendant(String path, String ancestor) {
+        return path.length() > ancestor.length()
+                && path.startsWith(ancestor)
+                && path.length() % (SEGMENT_WIDTH + 1) == 0
+                && path.chars().allMatch(ch -> ch == SEPARATOR || Character.isDigit(ch) || (ch >= 'a' && ch <= 'z'));
+    }
+}
@@ -55,9 +55,22 @@ public class Post {
     @Column(nullable = false)
     private Boolean published = false;
 
-    @Column(nullable = false)
+    /** 浏览量（仅通过原子 UPDATE 修改，实体保存时不回写，避免覆盖批量刷写的增量） */
+    @Column(nullable = false, updatable = false)
     private Integer views = 0;
 
+    /** 评论数（冗余计数，仅通过原子 UPDATE 修改，由PostCounterReconciler定期校准） */
+    @Column(nullable = false, updatable = false)
+    private Integer commentCount = 0;
+
+    /** 点赞数（冗余计数，同上） */
+    @Column(nullable = false, updatable = false)
+    private Integer likeCount = 0;
+
+    /** 收藏数（冗余计数，同上） */
+    @Column(nullable = false, updatable = false)
+    private Integer favoriteCount = 0;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -40,6 +40,6 @@ public class Tag {
     private Integer useCount = 0;
 
     /** 关联的文章集合 */
-    @ManyToMany(mappedBy = "tags", fetch = FetchType.LAZY)
+    @ManyToMany(mappedBy = "tagList", fetch = FetchType.LAZY)
     private Set<Post> posts = new HashSet<>();
 }
@@ -3,6 +3,7 @@ package com.blog.repository;
 import com.blog.model.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -21,5 +22,74 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     @Query("SELECT c FROM Comment c WHERE c.parent.id = :parentId AND c.deleted = false")
     List<Comment> findByParentId(Long parentId);
 
+    /**
+     * 获取多条评论的未删除直接回复，一次查询并JOIN用户（按时间顺序）
+     *
+     * 说明：仅在本页根评论的物化路径尚未回填时逐层使用，其余情况使用 findRepliesUnderRoots
+     */
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT c FROM Comment c WHERE c.parent.id IN :parentIds AND c.deleted = false " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findRepliesByParentIds(List<Long> parentIds, Pageable pageable);
+
+    /**
+     * 获取一页根评论下指定深度以内的未删除回复，一次查询并JOIN用户，用于在内存中组装回复树
+     *
+     * 说明：路径以全站评论ID开头，[minPath, upperBound) 本身会跨越其他文章的评论，因此以文章ID限定，
+     * 在 idx_post_path (post_id, path) 上做一次只覆盖本文章评论的范围扫描；
+     * 范围内可能夹有本文章其他页的根评论，再按路径的根段精确过滤到 rootPaths
+     *
+     * @param rootPathLength 根评论路径长度（路径前缀即所属根评论的路径）
+     */
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId AND c.path > :minPath AND c.path < :upperBound " +
+           "AND SUBSTRING(c.path, 1, :rootPathLength) IN :rootPaths " +
+           "AND c.depth BETWEEN 1 AND :maxDepth AND c.deleted = false " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findRepliesUnderRoots(Long postId, String minPath, String upperBound, int rootPathLength,
+                                        List<String> rootPaths, int maxDepth);
+
     Long countByPostIdAndDeletedFalse(Long postId);
+
+    /**
+     * 按物化路径分页获取子树（深度优先顺序）
+     *
+     * 说明：子孙路径满足 afterPath < path < upperBound，在 idx_path 上做一次范围扫描；
+     * 首页 afterPath 传节点自身路径，之后传上一页最后一条评论的路径
+     */
+    @EntityGraph(attributePaths = {"user", "post"})
+    @Query("SELECT c FROM Comment c WHERE c.path > :afterPath AND c.path < :upperBound AND c.deleted = false " +
+           "ORDER BY c.path ASC")
+    Slice<Comment> findSubtreeAfter(String afterPath, String upperBound, Pageable pageable);
+
+    /**
+     * 统计路径范围内未删除的评论数（idx_path 范围扫描，不含两端）
+     */
+    @Query("SELECT COUNT(c) FROM Comment c WHERE c.path > :path AND c.path < :upperBound AND c.deleted = false")
+    long countSubtree(String path, String upperBound);
+
+    /**
+     * 获取给定路径中已删除的评论，以及 (path, upperBound) 范围内已删除评论的路径（按路径排序）
+     *
+     * 说明：用于判断评论的祖先是否已删除，并在子树扫描中跳过已删除评论的整棵子树
+     */
+    @Query("SELECT c.path FROM Comment c WHERE c.deleted = true " +
+           "AND (c.path IN :paths OR (c.path > :path AND c.path < :upperBound)) ORDER BY c.path ASC")
+    List<String> findDeletedPaths(List<String> paths, String path, String upperBound);
+
+    /**
+     * 查找尚未生成物化路径的评论（历史数据回填用，按ID顺序保证父评论先于子评论处理）
+     */
+    @EntityGraph(attributePaths = {"parent"})
+    @Query("SELECT c FROM Comment c WHERE c.path IS NULL AND c.id > :afterId ORDER BY c.id ASC")
+    List<Comment> findWithoutPathAfterId(Long afterId, Pageable pageable);
+
+    /**
+     * 批量统计多篇文章的评论数（一次 GROUP BY 查询，仅统计未删除的评论）
+     *
+     * @return 每行为 [文章ID, 评论数]，没有评论的文章不会出现在结果中
+     */
+    @Query("SELECT c.post.id, COUNT(c) FROM Comment c " +
+           "WHERE c.post.id IN :postIds AND c.deleted = false GROUP BY c.post.id")
+    List<Object[]> countByPostIdsGroupByPostId(List<Long> postIds);
 }
@@ -1,12 +1,16 @@
 package com.blog.repository;
 
+import com.blog.dto.PostSummaryDTO;
 import com.blog.model.Favorite;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * 收藏数据访问层
  */
@@ -18,6 +22,17 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
      */
     Page<Favorite> findByUserId(Long userId, Pageable pageable);
 
+    /**
+     * 根据用户ID获取收藏文章的列表卡片（分页，不加载文章正文）
+     * 排序字段作用于收藏记录（如 createdAt 为收藏时间）
+     */
+    @Query(value = "SELECT new com.blog.dto.PostSummaryDTO(p.id, p.title, p.summary, p.coverImage, " +
+           "c.id, c.name, a.id, COALESCE(a.nickname, a.username), p.published, p.views, " +
+           "p.createdAt, p.updatedAt, p.tags, p.commentCount, p.likeCount, p.favoriteCount) " +
+           "FROM Favorite f JOIN f.post p JOIN p.author a LEFT JOIN p.category c WHERE f.user.id = :userId",
+           countQuery = "SELECT COUNT(f) FROM Favorite f WHERE f.user.id = :userId")
+    Page<PostSummaryDTO> findPostSummariesByUserId(Long userId, Pageable pageable);
+
     /**
      * 检查用户是否收藏了指定文章
      */
@@ -33,9 +48,25 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
      */
     Long countByPostId(Long postId);
 
+    /**
+     * 批量统计多篇文章的收藏数（一次 GROUP BY 查询）
+     *
+     * @return 每行为 [文章ID, 收藏数]，没有收藏的文章不会出现在结果中
+     */
+    @Query("SELECT f.post.id, COUNT(f) FROM Favorite f WHERE f.post.id IN :postIds GROUP BY f.post.id")
+    List<Object[]> countByPostIdsGroupByPostId(List<Long> postIds);
+
     /**
      * 取消收藏
+     *
+     * @return 删除的记录数
      */
     @Modifying
-    void deleteByUserIdAndPostId(Long userId, Long postId);
+    long deleteByUserIdAndPostId(Long userId, Long postId);
+
+    /**
+     * 用户收藏过的全部文章ID（用于加载用户互动状态位图）
+     */
+    @Query("SELECT f.post.id FROM Favorite f WHERE f.user.id = :userId")
+    List<Long> findPostIdsByUserId(Long userId);
 }
@@ -2,9 +2,10 @@ package com.blog.repository;
 
 import com.blog.model.Like;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,8 +15,27 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
 
     Long countByPostId(Long postId);
 
+    /**
+     * 批量统计多篇文章的点赞数（一次 GROUP BY 查询）
+     *
+     * @return 每行为 [文章ID, 点赞数]，没有点赞的文章不会出现在结果中
+     */
+    @Query("SELECT l.post.id, COUNT(l) FROM Like l WHERE l.post.id IN :postIds GROUP BY l.post.id")
+    List<Object[]> countByPostIdsGroupByPostId(List<Long> postIds);
+
     Boolean existsByUserIdAndPostId(Long userId, Long postId);
 
-    @Modifying
-    void deleteByUserIdAndPostId(Long userId, Long postId);
+    /**
+     * 一次查询文章是否存在及用户是否已点赞
+     *
+     * @return 文章存在时为一行 [文章ID, 点赞ID]，未点赞时点赞ID为 null；文章不存在时为空列表
+     */
+    @Query("SELECT p.id, l.id FROM Post p LEFT JOIN Like l ON l.post = p AND l.user.id = :userId WHERE p.id = :postId")
+    List<Object[]> findPostWithLike(Long postId, Long userId);
+
+    /**
+     * 用户点赞过的全部文章ID（用于加载用户互动状态位图）
+     */
+    @Query("SELECT l.post.id FROM Like l WHERE l.user.id = :userId")
+    List<Long> findPostIdsByUserId(Long userId);
 }
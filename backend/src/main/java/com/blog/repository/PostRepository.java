@@ -1,43 +1,350 @@
 package com.blog.repository;
 
+import com.blog.dto.PostSummaryDTO;
 import com.blog.model.Post;
+import com.blog.search.FacetDocument;
+import com.blog.search.RelatedDocument;
+import com.blog.search.SearchDocument;
+import com.blog.search.SuggestDocument;
+import com.blog.search.TrendingDocument;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
 
+    /**
+     * 列表卡片投影的 SELECT 子句（不包含正文 content，不加载实体）
+     * 使用时在其后拼接 WHERE 条件，文章别名为 p，作者 a，分类 c
+     */
+    String SUMMARY_SELECT = "SELECT new com.blog.dto.PostSummaryDTO(p.id, p.title, p.summary, p.coverImage, " +
+            "c.id, c.name, a.id, COALESCE(a.nickname, a.username), p.published, p.views, " +
+            "p.createdAt, p.updatedAt, p.tags, p.commentCount, p.likeCount, p.favoriteCount) " +
+            "FROM Post p JOIN p.author a LEFT JOIN p.category c ";
+
+    /**
+     * 游标（keyset）分页条件：位于 (cursorCreatedAt, cursorId) 之后，配合 KEYSET_ORDER 使用
+     * 按 (createdAt, id) 倒序在 idx_published_created 上定位，不使用 OFFSET，也不执行 COUNT
+     */
+    String KEYSET_AFTER = "(p.createdAt < :cursorCreatedAt OR (p.createdAt = :cursorCreatedAt AND p.id < :cursorId))";
+
+    String KEYSET_ORDER = " ORDER BY p.createdAt DESC, p.id DESC";
+
+    /**
+     * 搜索索引文档投影的 SELECT 子句（只读取建索引需要的字段）
+     */
+    String SEARCH_DOCUMENT_SELECT = "SELECT new com.blog.search.SearchDocument(p.id, p.title, p.summary, " +
+            "p.content, p.tags) FROM Post p ";
+
+    /**
+     * 输入提示文档投影的 SELECT 子句（不读取正文）
+     */
+    String SUGGEST_DOCUMENT_SELECT = "SELECT new com.blog.search.SuggestDocument(p.id, p.title, p.tags, p.views) " +
+            "FROM Post p ";
+
+    // ==================== 实体查询（显式抓取计划） ====================
+
+    /**
+     * 获取文章详情，作者和分类在同一条查询中 JOIN 加载
+     */
+    @EntityGraph(attributePaths = {"author", "category"})
+    @Query("SELECT p FROM Post p WHERE p.id = :id")
+    Optional<Post> findDetailById(Long id);
+
+    @EntityGraph(attributePaths = {"author", "category"})
     Page<Post> findByPublishedTrue(Pageable pageable);
 
+    @EntityGraph(attributePaths = {"author", "category"})
     Page<Post> findByCategoryIdAndPublishedTrue(Long categoryId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"author", "category"})
     Page<Post> findByAuthorIdAndPublishedTrue(Long authorId, Pageable pageable);
 
-    @Query("SELECT p FROM Post p WHERE p.published = true AND " +
+    // ==================== 列表卡片投影 ====================
+    // 投影查询在 SUMMARY_SELECT 中显式 JOIN 作者和分类，一条 SQL 返回全部卡片数据
+
+    /**
+     * 分页获取已发布文章的列表卡片
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE p.published = true",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.published = true")
+    Page<PostSummaryDTO> findPublishedSummaries(Pageable pageable);
+
+    /**
+     * 获取已发布文章的列表卡片（不执行count查询，用于热门/最新等固定条数的列表）
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.published = true")
+    List<PostSummaryDTO> findPublishedSummaryList(Pageable pageable);
+
+    /**
+     * 按ID批量获取已发布文章的列表卡片（顺序不保证，由调用方按需要重排）
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.published = true AND p.id IN :ids")
+    List<PostSummaryDTO> findPublishedSummariesByIds(Collection<Long> ids);
+
+    /**
+     * 按ID批量读取正文，返回 [文章ID, 正文]（仅用于为搜索结果当前页生成摘要片段）
+     */
+    @Query("SELECT p.id, p.content FROM Post p WHERE p.id IN :ids")
+    List<Object[]> findContentsByIds(Collection<Long> ids);
+
+    /**
+     * 按给定ID顺序获取已发布文章的列表卡片（用于搜索结果，已删除或撤回的文章会被跳过）
+     */
+    default List<PostSummaryDTO> findPublishedSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, PostSummaryDTO> byId = findPublishedSummariesByIds(ids).stream()
+                .collect(Collectors.toMap(PostSummaryDTO::getId, Function.identity()));
+        List<PostSummaryDTO> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            PostSummaryDTO summary = byId.get(id);
+            if (summary != null) {
+                ordered.add(summary);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * LIKE 模糊搜索（全表扫描，仅用于 like 模式，以及其他搜索模式不可用时的回退）
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE p.published = true AND " +
+           "(LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(p.content) LIKE LOWER(CONCAT('%', :keyword, '%')))",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.published = true AND " +
            "(LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.content) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Post> searchPublishedPosts(String keyword, Pageable pageable);
+    Page<PostSummaryDTO> searchPublishedPosts(String keyword, Pageable pageable);
+
+    /**
+     * LIKE 模糊搜索命中的文章ID（按发布时间倒序，分面搜索在非索引模式下使用，最多返回 pageable 指定的条数）
+     */
+    @Query("SELECT p.id FROM Post p WHERE p.published = true AND " +
+           "(LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(p.content) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Long> searchPublishedPostIds(String keyword, Pageable pageable);
+
+    // ==================== 搜索索引 ====================
+
+    /**
+     * 按ID分块读取已发布文章的索引字段（启动时重建搜索索引）
+     */
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE p.published = true AND p.id > :afterId ORDER BY p.id ASC")
+    List<SearchDocument> findSearchDocumentsAfterId(Long afterId, Pageable pageable);
+
+    /**
+     * 读取单篇已发布文章的索引字段（增量更新搜索索引，草稿返回空）
+     */
+    @Query(SEARCH_DOCUMENT_SELECT + "WHERE p.published = true AND p.id = :id")
+    Optional<SearchDocument> findSearchDocumentById(Long id);
+
+    /**
+     * 按ID分块读取已发布文章的标题、标签和浏览量（启动时加载输入提示索引）
+     */
+    @Query(SUGGEST_DOCUMENT_SELECT + "WHERE p.published = true AND p.id > :afterId ORDER BY p.id ASC")
+    List<SuggestDocument> findSuggestDocumentsAfterId(Long afterId, Pageable pageable);
+
+    /**
+     * 读取单篇已发布文章的输入提示字段（草稿返回空）
+     */
+    @Query(SUGGEST_DOCUMENT_SELECT + "WHERE p.published = true AND p.id = :id")
+    Optional<SuggestDocument> findSuggestDocumentById(Long id);
 
-    List<Post> findTop5ByPublishedTrueOrderByViewsDesc();
+    // ==================== 分面索引 ====================
 
-    List<Post> findTop5ByPublishedTrueOrderByCreatedAtDesc();
+    /**
+     * 分面文档投影的 SELECT 子句（分类可能为空，使用 LEFT JOIN）
+     */
+    String FACET_DOCUMENT_SELECT = "SELECT new com.blog.search.FacetDocument(p.id, c.id, p.author.id, p.createdAt) " +
+            "FROM Post p LEFT JOIN p.category c ";
+
+    /**
+     * 按ID分块读取已发布文章的分类、作者和创建时间（启动时加载分面索引）
+     */
+    @Query(FACET_DOCUMENT_SELECT + "WHERE p.published = true AND p.id > :afterId ORDER BY p.id ASC")
+    List<FacetDocument> findFacetDocumentsAfterId(Long afterId, Pageable pageable);
+
+    /**
+     * 读取单篇已发布文章的分面字段（草稿返回空）
+     */
+    @Query(FACET_DOCUMENT_SELECT + "WHERE p.published = true AND p.id = :id")
+    Optional<FacetDocument> findFacetDocumentById(Long id);
+
+    /**
+     * 批量读取文章的标签ID，返回 [文章ID, 标签ID]
+     */
+    @Query("SELECT p.id, t.id FROM Post p JOIN p.tagList t WHERE p.id IN :postIds")
+    List<Object[]> findTagIdsByPostIds(Collection<Long> postIds);
+
+    // ==================== 相关文章 ====================
+
+    /**
+     * 相关文章文档投影的 SELECT 子句
+     */
+    String RELATED_DOCUMENT_SELECT = "SELECT new com.blog.search.RelatedDocument(p.id, p.title, c.id, p.createdAt) " +
+            "FROM Post p LEFT JOIN p.category c ";
+
+    /**
+     * 按ID分块读取已发布文章的标题、分类和创建时间（启动时预计算相关文章）
+     */
+    @Query(RELATED_DOCUMENT_SELECT + "WHERE p.published = true AND p.id > :afterId ORDER BY p.id ASC")
+    List<RelatedDocument> findRelatedDocumentsAfterId(Long afterId, Pageable pageable);
+
+    /**
+     * 读取单篇已发布文章的相关文章字段（草稿返回空）
+     */
+    @Query(RELATED_DOCUMENT_SELECT + "WHERE p.published = true AND p.id = :id")
+    Optional<RelatedDocument> findRelatedDocumentById(Long id);
+
+    String TRENDING_DOCUMENT_SELECT = "SELECT new com.blog.search.TrendingDocument(p.id, c.id, p.createdAt, " +
+            "p.views, p.commentCount, p.likeCount, p.favoriteCount) FROM Post p LEFT JOIN p.category c ";
+
+    /**
+     * 按ID分块读取已发布文章的分类和互动计数（启动时初始化热度排行）
+     */
+    @Query(TRENDING_DOCUMENT_SELECT + "WHERE p.published = true AND p.id > :afterId ORDER BY p.id ASC")
+    List<TrendingDocument> findTrendingDocumentsAfterId(Long afterId, Pageable pageable);
+
+    /**
+     * 读取单篇已发布文章的热度字段（草稿返回空）
+     */
+    @Query(TRENDING_DOCUMENT_SELECT + "WHERE p.published = true AND p.id = :id")
+    Optional<TrendingDocument> findTrendingDocumentById(Long id);
+
+    /**
+     * 原子增加浏览量（不加载实体，避免读-改-写覆盖并发更新）
+     *
+     * @return 受影响的行数，0 表示文章不存在
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Post p SET p.views = p.views + :delta WHERE p.id = :id")
+    int incrementViews(Long id, int delta);
+
+    // ==================== 冗余计数相关 ====================
+
+    /**
+     * 原子调整评论数
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :id")
+    int incrementCommentCount(Long id, int delta);
+
+    /**
+     * 已写库的点赞数（未计入 LikeWriteBuffer 中的待写库增量）
+     */
+    @Query("SELECT p.likeCount FROM Post p WHERE p.id = :id")
+    Optional<Integer> findLikeCountById(Long id);
+
+    /**
+     * 冗余的收藏数（由 FavoriteService 在收藏/取消时原子更新）
+     */
+    @Query("SELECT p.favoriteCount FROM Post p WHERE p.id = :id")
+    Optional<Integer> findFavoriteCountById(Long id);
+
+    /**
+     * 原子调整收藏数
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.favoriteCount = p.favoriteCount + :delta WHERE p.id = :id")
+    int incrementFavoriteCount(Long id, int delta);
+
+    /**
+     * 按ID顺序分块读取冗余计数（用于对账）
+     *
+     * @return 每行为 [文章ID, 评论数, 点赞数, 收藏数]
+     */
+    @Query("SELECT p.id, p.commentCount, p.likeCount, p.favoriteCount FROM Post p " +
+           "WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findCountersAfterId(Long afterId, Pageable pageable);
+
+    /**
+     * 修复冗余计数
+     *
+     * 说明：仅当计数仍为读取时的旧值才覆盖，期间有并发增减则跳过，留待下一轮对账
+     *
+     * @return 受影响的行数
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = :commentCount, p.likeCount = :likeCount, " +
+           "p.favoriteCount = :favoriteCount WHERE p.id = :id AND p.commentCount = :oldCommentCount " +
+           "AND p.likeCount = :oldLikeCount AND p.favoriteCount = :oldFavoriteCount")
+    int repairCounters(Long id, int commentCount, int likeCount, int favoriteCount,
+                       int oldCommentCount, int oldLikeCount, int oldFavoriteCount);
+
+    // ==================== 游标分页 ====================
+
+    /**
+     * 游标分页获取已发布文章
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.published = true AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<PostSummaryDTO> findPublishedSummariesAfter(LocalDateTime cursorCreatedAt, Long cursorId, Pageable pageable);
+
+    /**
+     * 游标分页获取指定标签的已发布文章
+     */
+    @Query(SUMMARY_SELECT + "JOIN p.tagList t WHERE t.id = :tagId AND p.published = true AND " +
+           KEYSET_AFTER + KEYSET_ORDER)
+    Slice<PostSummaryDTO> findSummariesByTagIdAfter(Long tagId, LocalDateTime cursorCreatedAt, Long cursorId,
+                                                    Pageable pageable);
+
+    /**
+     * 游标分页获取指定分类的已发布文章
+     */
+    @Query(SUMMARY_SELECT + "WHERE c.id = :categoryId AND p.published = true AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<PostSummaryDTO> findSummariesByCategoryIdAfter(Long categoryId, LocalDateTime cursorCreatedAt, Long cursorId,
+                                                         Pageable pageable);
+
+    /**
+     * 游标分页获取指定作者的已发布文章
+     */
+    @Query(SUMMARY_SELECT + "WHERE a.id = :authorId AND p.published = true AND " + KEYSET_AFTER + KEYSET_ORDER)
+    Slice<PostSummaryDTO> findSummariesByAuthorIdAfter(Long authorId, LocalDateTime cursorCreatedAt, Long cursorId,
+                                                       Pageable pageable);
+
+    /**
+     * 游标分页获取时间区间 [start, end) 内的已发布文章（归档）
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.published = true AND p.createdAt >= :start AND p.createdAt < :end AND " +
+           KEYSET_AFTER + KEYSET_ORDER)
+    Slice<PostSummaryDTO> findSummariesBetweenAfter(LocalDateTime start, LocalDateTime end,
+                                                    LocalDateTime cursorCreatedAt, Long cursorId, Pageable pageable);
 
     // ==================== 草稿相关 ====================
 
     /**
      * 获取用户的草稿（未发布的文章）
      */
-    Page<Post> findByAuthorIdAndPublishedFalse(Long authorId, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE a.id = :authorId AND p.published = false",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.author.id = :authorId AND p.published = false")
+    Page<PostSummaryDTO> findByAuthorIdAndPublishedFalse(Long authorId, Pageable pageable);
 
     /**
      * 获取用户的所有文章（包括草稿和已发布）
      */
-    Page<Post> findByAuthorId(Long authorId, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "WHERE a.id = :authorId",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.author.id = :authorId")
+    Page<PostSummaryDTO> findByAuthorId(Long authorId, Pageable pageable);
 
     /**
      * 统计用户的文章总数
@@ -54,24 +361,23 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     /**
      * 根据标签查询已发布文章
      */
-    @Query("SELECT p FROM Post p JOIN p.tagList t WHERE t.id = :tagId AND p.published = true")
-    Page<Post> findByTagIdAndPublishedTrue(Long tagId, Pageable pageable);
+    @Query(value = SUMMARY_SELECT + "JOIN p.tagList t WHERE t.id = :tagId AND p.published = true",
+           countQuery = "SELECT COUNT(p) FROM Post p JOIN p.tagList t WHERE t.id = :tagId AND p.published = true")
+    Page<PostSummaryDTO> findByTagIdAndPublishedTrue(Long tagId, Pageable pageable);
 
     // ==================== 归档相关 ====================
 
     /**
-     * 按年月查询已发布文章
+     * 查询时间区间 [start, end) 内的已发布文章（归档，按 idx_published_created 范围查找）
+     *
+     * 说明：不执行 count 查询，总数由 ArchiveStatsCache 提供
      */
-    @Query("SELECT p FROM Post p WHERE p.published = true AND " +
-           "YEAR(p.createdAt) = :year AND MONTH(p.createdAt) = :month")
-    Page<Post> findByYearAndMonth(Integer year, Integer month, Pageable pageable);
+    @Query(SUMMARY_SELECT + "WHERE p.published = true AND p.createdAt >= :start AND p.createdAt < :end")
+    List<PostSummaryDTO> findPublishedSummariesBetween(LocalDateTime start, LocalDateTime end, Pageable pageable);
 
     /**
-     * 获取归档统计（按年月分组）
+     * 已发布文章的创建时间（未发布或不存在时为空，用于增量维护归档统计）
      */
-    @Query("SELECT YEAR(p.createdAt) as year, MONTH(p.createdAt) as month, COUNT(p) as count " +
-           "FROM Post p WHERE p.published = true " +
-           "GROUP BY YEAR(p.createdAt), MONTH(p.createdAt) " +
-           "ORDER BY year DESC, month DESC")
-    List<Object[]> getArchiveStats();
+    @Query("SELECT p.createdAt FROM Post p WHERE p.published = true AND p.id = :id")
+    Optional<LocalDateTime> findPublishedCreatedAtById(Long id);
 }
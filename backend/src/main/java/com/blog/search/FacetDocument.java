@@ -0,0 +1,11 @@
+package com.blog.search;
+
+import java.time.LocalDateTime;
+
+/**
+ * 构建分面索引所需的文章字段
+ *
+ * 说明：由 PostRepository 通过 JPQL 构造器表达式直接查询生成，标签ID另行按块查询
+ */
+public record FacetDocument(Long id, Long categoryId, Long authorId, LocalDateTime createdAt) {
+}
@@ -0,0 +1,16 @@
+package com.blog.search;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 分面搜索的筛选条件（各条件之间为 AND 关系，为 null 表示不限）
+ *
+ * @param tagIds 标签ID，文章需同时包含所有标签
+ * @param categoryId 分类ID
+ * @param authorId 作者ID
+ * @param from 创建日期下限（含）
+ * @param to 创建日期上限（含）
+ */
+public record FacetFilter(List<Long> tagIds, Long categoryId, Long authorId, LocalDate from, LocalDate to) {
+}
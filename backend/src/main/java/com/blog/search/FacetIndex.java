@@ -0,0 +1,397 @@
+package com.blog.search;
+
+import com.blog.event.PostChangedEvent;
+import com.blog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 分面搜索的内存位图索引
+ *
+ * 功能说明：
+ * - 为每个标签、分类、作者、年月各维护一个已发布文章ID的 RoaringBitmap 压缩位图
+ * - 筛选条件对应的位图求交集得到候选文章；分面计数为命中集合与各位图交集的基数，不访问数据库
+ *   （命中文章少于标签总数时改为逐篇累计命中文章的标签，不遍历全部标签的位图）
+ * - 日期范围先合并范围内整月的位图，只对首尾两个月份逐篇比较创建时间
+ * - 启动完成后从数据库分块加载；之后由 PostChangedEvent 在事务提交后增量更新
+ * - 加载完成前 isReady() 返回 false（部分加载的位图会给出不完整的结果和计数），调用方应拒绝请求
+ *
+ * 说明：文章ID以 int 存入位图，标签取自 post_tags 关联（Post.tagList），与 /tags/{id}/posts 一致
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FacetIndex {
+
+    private static final Comparator<Entry> NEWEST_FIRST =
+            Comparator.comparing(Entry::createdAt).thenComparingInt(Entry::id).reversed();
+
+    /** 分面计数按数量从多到少，相同时按ID */
+    private static final Comparator<Count> BY_COUNT =
+            Comparator.comparingInt(Count::count).reversed().thenComparingLong(Count::key);
+
+    private final PostRepository postRepository;
+
+    @Value("${blog.search.rebuild-chunk-size:500}")
+    private int chunkSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 全部已发布文章 */
+    private final RoaringBitmap published = new RoaringBitmap();
+
+    /** 标签ID -> 文章ID */
+    private final Map<Long, RoaringBitmap> byTag = new HashMap<>();
+
+    /** 分类ID -> 文章ID */
+    private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+
+    /** 作者ID -> 文章ID */
+    private final Map<Long, RoaringBitmap> byAuthor = new HashMap<>();
+
+    /** 年月（year * 100 + month） -> 文章ID */
+    private final TreeMap<Integer, RoaringBitmap> byMonth = new TreeMap<>();
+
+    /** 文章ID -> 分面字段（移除文章时定位位图，按时间排序和筛选边界月份时读取创建时间） */
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+
+    /** 重建期间被增量更新过的文章，重建时跳过以免旧数据覆盖新数据 */
+    private final Set<Long> updatedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 索引是否已可用（启动加载完成）
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 计算满足筛选条件的已发布文章
+     *
+     * @return 新的位图，调用方可以自由修改
+     */
+    public RoaringBitmap filter(FacetFilter filter) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = published.clone();
+            if (filter.tagIds() != null) {
+                for (Long tagId : filter.tagIds()) {
+                    result.and(byTag.getOrDefault(tagId, new RoaringBitmap()));
+                }
+            }
+            if (filter.categoryId() != null) {
+                result.and(byCategory.getOrDefault(filter.categoryId(), new RoaringBitmap()));
+            }
+            if (filter.authorId() != null) {
+                result.and(byAuthor.getOrDefault(filter.authorId(), new RoaringBitmap()));
+            }
+            if (filter.from() != null || filter.to() != null) {
+                result.and(createdBetween(filter.from(), filter.to()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按创建时间倒序取前 limit 篇（无关键词时的排序）
+     */
+    public List<Long> newest(RoaringBitmap posts, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            // 小顶堆（按最新优先的逆序）保留最新的 limit 篇
+            PriorityQueue<Entry> top = new PriorityQueue<>(limit + 1, NEWEST_FIRST.reversed());
+            posts.forEach((int id) -> {
+                Entry entry = entries.get(id);
+                if (entry != null) {
+                    top.offer(entry);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            });
+            List<Entry> sorted = new ArrayList<>(top);
+            sorted.sort(NEWEST_FIRST);
+            List<Long> ids = new ArrayList<>(sorted.size());
+            sorted.forEach(entry -> ids.add((long) entry.id()));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 统计命中文章在各标签、分类、年月上的分布
+     *
+     * @param matched 命中的文章
+     * @param maxTags 最多返回的标签数（按数量从多到少）
+     */
+    public FacetCounts count(RoaringBitmap matched, int maxTags) {
+        lock.readLock().lock();
+        try {
+            List<Count> tags = matched.getLongCardinality() < byTag.size()
+                    ? countTagsOf(matched)
+                    : countEach(byTag.entrySet(), matched);
+            if (tags.size() > maxTags) {
+                tags = new ArrayList<>(tags.subList(0, maxTags));
+            }
+            List<Count> categories = countEach(byCategory.entrySet(), matched);
+            List<Count> months = new ArrayList<>();
+            for (Map.Entry<Integer, RoaringBitmap> month : byMonth.descendingMap().entrySet()) {
+                int count = RoaringBitmap.andCardinality(month.getValue(), matched);
+                if (count > 0) {
+                    months.add(new Count(month.getKey(), count));
+                }
+            }
+            return new FacetCounts(tags, categories, months);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 文章创建、更新（含发布/撤回）、删除后增量更新索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        // 先登记再读库：重建中读到的旧数据不会再覆盖这里写入的新数据
+        if (rebuilding) {
+            updatedDuringRebuild.add(event.postId());
+        }
+        if (event.type() == PostChangedEvent.Type.DELETED) {
+            remove(event.postId());
+            return;
+        }
+        postRepository.findFacetDocumentById(event.postId()).ifPresentOrElse(
+                document -> index(document, loadTagIds(List.of(document.id())).get(document.id()), false),
+                () -> remove(event.postId()));
+    }
+
+    /**
+     * 启动完成后从数据库分块加载
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        try {
+            Long afterId = 0L;
+            while (true) {
+                List<FacetDocument> documents = postRepository.findFacetDocumentsAfterId(
+                        afterId, PageRequest.of(0, chunkSize));
+                if (documents.isEmpty()) {
+                    break;
+                }
+                Map<Long, List<Long>> tagIds = loadTagIds(documents.stream().map(FacetDocument::id).toList());
+                for (FacetDocument document : documents) {
+                    index(document, tagIds.get(document.id()), true);
+                }
+                afterId = documents.get(documents.size() - 1).id();
+            }
+        } finally {
+            rebuilding = false;
+            updatedDuringRebuild.clear();
+        }
+        ready = true;
+
+        lock.writeLock().lock();
+        try {
+            // 加载完成后把稠密的区间转换为行程编码，进一步压缩位图
+            published.runOptimize();
+            byTag.values().forEach(RoaringBitmap::runOptimize);
+            byCategory.values().forEach(RoaringBitmap::runOptimize);
+            byAuthor.values().forEach(RoaringBitmap::runOptimize);
+            byMonth.values().forEach(RoaringBitmap::runOptimize);
+            log.info("分面索引加载完成 - 文章数: {}, 标签数: {}, 分类数: {}, 耗时: {}ms",
+                    entries.size(), byTag.size(), byCategory.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, List<Long>> loadTagIds(Collection<Long> postIds) {
+        Map<Long, List<Long>> tagIds = new HashMap<>();
+        for (Object[] row : postRepository.findTagIdsByPostIds(postIds)) {
+            tagIds.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+        }
+        return tagIds;
+    }
+
+    /**
+     * 添加或替换一篇文章
+     *
+     * @param skipIfUpdated 为 true 时（重建），若该文章在重建期间已被增量更新则跳过
+     */
+    private void index(FacetDocument document, List<Long> tagIds, boolean skipIfUpdated) {
+        int id = Math.toIntExact(document.id());
+        Entry entry = new Entry(id, tagIds != null ? tagIds : Collections.emptyList(),
+                document.categoryId(), document.authorId(), document.createdAt(), monthKey(document.createdAt()));
+
+        lock.writeLock().lock();
+        try {
+            if (skipIfUpdated && updatedDuringRebuild.contains(document.id())) {
+                return;
+            }
+            removeLocked(id);
+            entries.put(id, entry);
+            published.add(id);
+            for (Long tagId : entry.tagIds()) {
+                byTag.computeIfAbsent(tagId, key -> new RoaringBitmap()).add(id);
+            }
+            if (entry.categoryId() != null) {
+                byCategory.computeIfAbsent(entry.categoryId(), key -> new RoaringBitmap()).add(id);
+            }
+            byAuthor.computeIfAbsent(entry.authorId(), key -> new RoaringBitmap()).add(id);
+            byMonth.computeIfAbsent(entry.month(), key -> new RoaringBitmap()).add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(Math.toIntExact(postId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        published.remove(id);
+        for (Long tagId : entry.tagIds()) {
+            removeFrom(byTag, tagId, id);
+        }
+        if (entry.categoryId() != null) {
+            removeFrom(byCategory, entry.categoryId(), id);
+        }
+        removeFrom(byAuthor, entry.authorId(), id);
+        removeFrom(byMonth, entry.month(), id);
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    /**
+     * 创建日期在 [from, to] 内的文章（两端均可为 null）
+     */
+    private RoaringBitmap createdBetween(LocalDate from, LocalDate to) {
+        LocalDateTime start = from != null ? from.atStartOfDay() : LocalDateTime.MIN;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : LocalDateTime.MAX;
+        int firstMonth = from != null ? monthKey(start) : Integer.MIN_VALUE;
+        int lastMonth = to != null ? monthKey(to.atStartOfDay()) : Integer.MAX_VALUE;
+
+        RoaringBitmap result = new RoaringBitmap();
+        if (firstMonth > lastMonth) {
+            return result;
+        }
+        NavigableMap<Integer, RoaringBitmap> months = byMonth.subMap(firstMonth, true, lastMonth, true);
+        for (Map.Entry<Integer, RoaringBitmap> month : months.entrySet()) {
+            if (month.getKey() != firstMonth && month.getKey() != lastMonth) {
+                result.or(month.getValue());
+                continue;
+            }
+            month.getValue().forEach((int id) -> {
+                LocalDateTime createdAt = entries.get(id).createdAt();
+                if (!createdAt.isBefore(start) && createdAt.isBefore(end)) {
+                    result.add(id);
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 逐篇累计命中文章的标签（命中文章少于标签总数时使用，开销与命中数成正比，而非与全站标签数成正比）
+     */
+    private List<Count> countTagsOf(RoaringBitmap matched) {
+        Map<Long, Integer> tally = new HashMap<>();
+        matched.forEach((int id) -> {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                entry.tagIds().forEach(tagId -> tally.merge(tagId, 1, Integer::sum));
+            }
+        });
+        List<Count> counts = new ArrayList<>(tally.size());
+        tally.forEach((tagId, count) -> counts.add(new Count(tagId, count)));
+        counts.sort(BY_COUNT);
+        return counts;
+    }
+
+    private static List<Count> countEach(Collection<Map.Entry<Long, RoaringBitmap>> bitmaps, RoaringBitmap matched) {
+        List<Count> counts = new ArrayList<>();
+        for (Map.Entry<Long, RoaringBitmap> bitmap : bitmaps) {
+            int count = RoaringBitmap.andCardinality(bitmap.getValue(), matched);
+            if (count > 0) {
+                counts.add(new Count(bitmap.getKey(), count));
+            }
+        }
+        counts.sort(BY_COUNT);
+        return counts;
+    }
+
+    private static int monthKey(LocalDateTime dateTime) {
+        return dateTime.getYear() * 100 + dateTime.getMonthValue();
+    }
+
+    private record Entry(int id, List<Long> tagIds, Long categoryId, Long authorId,
+                         LocalDateTime createdAt, int month) {
+    }
+
+    /**
+     * 一个分面取值及命中文章数
+     *
+     * @param key 标签ID、分类ID，或年月（year * 100 + month）
+     * @param count 命中文章数
+     */
+    public record Count(long key, int count) {
+    }
+
+    /**
+     * 分面计数结果，均按数量从多到少排序（年月按时间倒序）
+     */
+    public record FacetCounts(List<Count> tags, List<Count> categories, List<Count> months) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.blog.search;
+
+import com.blog.dto.PostSummaryDTO;
+import com.blog.repository.PostRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * MySQL 全文索引搜索策略（blog.search.mode=fulltext）
+ *
+ * 功能说明：
+ * - 使用 schema.sql 中的 FULLTEXT INDEX idx_title_content（WITH PARSER ngram，支持中文）
+ * - 词首带有 + - ~ < > ( " 运算符或词尾带有 * " ) 时使用 BOOLEAN MODE，否则使用 NATURAL LANGUAGE MODE；
+ *   词中间的连字符（如 spring-boot）不视为排除运算符
+ * - 按 MATCH 相关度排序，总数通过 COUNT(*) OVER() 与当前页在同一条查询中返回，不再单独执行一次匹配（需要 MySQL 8.0+）
+ * - 分面搜索的命中扫描有上限：候选文章较少时以 IN 条件下推到查询中，否则按相关度只取前 max-matches 篇
+ * - 启动时检测数据库类型，非 MySQL（如开发环境的 H2）回退到 LIKE 查询
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "blog.search", name = "mode", havingValue = "fulltext")
+public class FullTextSearchStrategy implements PostSearchStrategy {
+
+    /** 位于词首（开头或空白之后）或词尾（结尾或空白之前）的布尔运算符 */
+    private static final Pattern BOOLEAN_OPERATORS = Pattern.compile("(^|\\s)[+\\-~<>(\"]|[*)\"](\\s|$)");
+
+    private static final String MATCH = "MATCH(p.title, p.content) AGAINST (:query IN %s MODE)";
+
+    private static final String SEARCH_SQL = "SELECT p.id, %1$s AS score, COUNT(*) OVER() AS total " +
+            "FROM posts p WHERE p.published = TRUE AND %1$s " +
+            "ORDER BY score DESC, p.id DESC LIMIT :limit OFFSET :offset";
+
+    private static final String IDS_SQL = "SELECT p.id FROM posts p WHERE p.published = TRUE AND %1$s%2$s " +
+            "ORDER BY %1$s DESC, p.id DESC LIMIT :limit";
+
+    private static final String CANDIDATES_FILTER = " AND p.id IN (:ids)";
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM posts p WHERE p.published = TRUE AND %s";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final PostRepository postRepository;
+
+    /** 分面搜索最多扫描的命中数（按相关度取前N篇，超出部分不计入总数和分面计数） */
+    @Value("${blog.search.facets.max-matches:10000}")
+    private int maxMatches;
+
+    /** 候选文章数不超过该值时，以 IN 条件下推到全文查询中 */
+    @Value("${blog.search.facets.candidate-push-down:1000}")
+    private int candidatePushDown;
+
+    private boolean supported;
+
+    @PostConstruct
+    public void init() {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            supported = "MySQL".equalsIgnoreCase(product);
+            if (supported) {
+                log.info("搜索模式: MySQL FULLTEXT");
+            } else {
+                log.warn("当前数据库 {} 不支持 MySQL FULLTEXT，搜索回退到 LIKE 查询", product);
+            }
+        } catch (SQLException e) {
+            log.warn("无法检测数据库类型，搜索回退到 LIKE 查询", e);
+        }
+    }
+
+    @Override
+    public Page<PostSummaryDTO> search(String keyword, Pageable pageable) {
+        if (!supported) {
+            return postRepository.searchPublishedPosts(keyword, pageable);
+        }
+        if (keyword == null || keyword.isBlank()) {
+            return Page.empty(pageable);
+        }
+
+        String match = match(keyword);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", keyword)
+                .addValue("limit", pageable.getPageSize())
+                .addValue("offset", pageable.getOffset());
+
+        List<Long> ids = new ArrayList<>();
+        long[] total = {0};
+        jdbcTemplate.query(String.format(SEARCH_SQL, match), params, rs -> {
+            ids.add(rs.getLong("id"));
+            total[0] = rs.getLong("total");
+        });
+
+        // 超出最后一页时窗口函数没有返回行，只在这种情况下单独计数
+        if (ids.isEmpty() && pageable.getOffset() > 0) {
+            Long count = jdbcTemplate.queryForObject(String.format(COUNT_SQL, match), params, Long.class);
+            total[0] = count != null ? count : 0;
+        }
+
+        return new PageImpl<>(postRepository.findPublishedSummariesInOrder(ids), pageable, total[0]);
+    }
+
+    @Override
+    public MatchedPosts searchWithin(String keyword, RoaringBitmap candidates, int limit) {
+        if (!supported) {
+            return MatchedPosts.within(postRepository.searchPublishedPostIds(keyword,
+                    PageRequest.of(0, maxMatches)), candidates, limit);
+        }
+        if (keyword == null || keyword.isBlank() || candidates.isEmpty()) {
+            return new MatchedPosts(new RoaringBitmap(), new ArrayList<>());
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", keyword)
+                .addValue("limit", maxMatches);
+        String filter = "";
+        if (candidates.getLongCardinality() <= candidatePushDown) {
+            List<Long> ids = new ArrayList<>(candidates.getCardinality());
+            candidates.forEach((int id) -> ids.add((long) id));
+            params.addValue("ids", ids);
+            filter = CANDIDATES_FILTER;
+        }
+        List<Long> rankedIds = jdbcTemplate.queryForList(String.format(IDS_SQL, match(keyword), filter),
+                params, Long.class);
+        return MatchedPosts.within(rankedIds, candidates, limit);
+    }
+
+    private String match(String keyword) {
+        return String.format(MATCH, BOOLEAN_OPERATORS.matcher(keyword).find() ? "BOOLEAN" : "NATURAL LANGUAGE");
+    }
+}
@@ -0,0 +1,60 @@
+package com.blog.search;
+
+import com.blog.dto.PostSummaryDTO;
+import com.blog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 内存倒排索引搜索策略（blog.search.mode=index，默认）
+ *
+ * 说明：
+ * - 由 PostSearchIndex 按 BM25 相关度排序，数据库只按ID读取当前页的列表卡片（1次查询）
+ * - 索引启动重建完成前回退到 LIKE 查询
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "blog.search", name = "mode", havingValue = "index", matchIfMissing = true)
+public class IndexSearchStrategy implements PostSearchStrategy {
+
+    private final PostSearchIndex postSearchIndex;
+    private final PostRepository postRepository;
+
+    /** 分面搜索最多扫描的命中数 */
+    @Value("${blog.search.facets.max-matches:10000}")
+    private int maxMatches;
+
+    @Override
+    public Page<PostSummaryDTO> search(String keyword, Pageable pageable) {
+        if (!postSearchIndex.isReady()) {
+            return postRepository.searchPublishedPosts(keyword, pageable);
+        }
+
+        PostSearchIndex.SearchHits hits = postSearchIndex.search(keyword,
+                (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE));
+        List<Long> rankedIds = hits.postIds();
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        List<PostSummaryDTO> content = postRepository.findPublishedSummariesInOrder(
+                rankedIds.subList(from, rankedIds.size()));
+        return new PageImpl<>(content, pageable, hits.total());
+    }
+
+    @Override
+    public MatchedPosts searchWithin(String keyword, RoaringBitmap candidates, int limit) {
+        if (!postSearchIndex.isReady()) {
+            return MatchedPosts.within(postRepository.searchPublishedPostIds(keyword,
+                    PageRequest.of(0, maxMatches)), candidates, limit);
+        }
+        PostSearchIndex.SearchHits hits = postSearchIndex.search(keyword, limit, candidates);
+        return new MatchedPosts(hits.matched(), hits.postIds());
+    }
+}
@@ -0,0 +1,40 @@
+package com.blog.search;
+
+import com.blog.dto.PostSummaryDTO;
+import com.blog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * LIKE 模糊搜索策略（blog.search.mode=like）
+ *
+ * 说明：LOWER(title/content) LIKE '%kw%' 会扫描所有文章正文，只适合数据量很小或用于对比测试
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "blog.search", name = "mode", havingValue = "like")
+public class LikeSearchStrategy implements PostSearchStrategy {
+
+    private final PostRepository postRepository;
+
+    /** 分面搜索最多扫描的命中数 */
+    @Value("${blog.search.facets.max-matches:10000}")
+    private int maxMatches;
+
+    @Override
+    public Page<PostSummaryDTO> search(String keyword, Pageable pageable) {
+        return postRepository.searchPublishedPosts(keyword, pageable);
+    }
+
+    @Override
+    public MatchedPosts searchWithin(String keyword, RoaringBitmap candidates, int limit) {
+        return MatchedPosts.within(postRepository.searchPublishedPostIds(keyword,
+                    PageRequest.of(0, maxMatches)), candidates, limit);
+    }
+}
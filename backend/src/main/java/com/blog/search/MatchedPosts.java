@@ -0,0 +1,37 @@
+package com.blog.search;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 在候选范围内搜索的结果（分面搜索使用）
+ *
+ * @param matched 命中的全部文章ID（用于统计分面和总数）
+ * @param rankedIds 按相关度排序的前若干篇文章ID
+ */
+public record MatchedPosts(RoaringBitmap matched, List<Long> rankedIds) {
+
+    /**
+     * 从已排序的命中列表中保留候选范围内的文章
+     *
+     * @param rankedIds 按相关度排序的全部命中文章ID
+     * @param candidates 候选文章ID
+     * @param limit 最多保留的排序结果数
+     */
+    public static MatchedPosts within(List<Long> rankedIds, RoaringBitmap candidates, int limit) {
+        RoaringBitmap matched = new RoaringBitmap();
+        List<Long> top = new ArrayList<>(Math.min(limit, rankedIds.size()));
+        for (Long id : rankedIds) {
+            int doc = Math.toIntExact(id);
+            if (candidates.contains(doc)) {
+                matched.add(doc);
+                if (top.size() < limit) {
+                    top.add(id);
+                }
+            }
+        }
+        return new MatchedPosts(matched, top);
+    }
+}
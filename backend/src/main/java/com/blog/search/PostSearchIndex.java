@@ -0,0 +1,475 @@
+package com.blog.search;
+
+import com.blog.event.PostChangedEvent;
+import com.blog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 文章全文搜索的内存倒排索引
+ *
+ * 功能说明：
+ * - 对已发布文章的标题、摘要、正文、标签分词（见 Tokenizer）后建立倒排索引
+ * - 查询词之间为 AND 关系，命中文档按 BM25 打分排序，标题、标签、摘要的词频按权重放大
+ * - 启动完成后从数据库分块重建；之后由 PostChangedEvent 在事务提交后增量更新
+ * - 重建完成前 isReady() 返回 false，调用方应回退到数据库查询
+ * - 仅在 blog.search.mode=index（默认）时创建，其他模式不占用内存
+ *
+ * 性能说明：
+ * - 原方案：LOWER(content) LIKE '%kw%' 对每篇文章的 TEXT 正文做全表扫描，且没有相关度排序
+ * - 优化后：查询只访问各查询词的倒排列表，从最短的列表出发逐个二分校验其他列表
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "blog.search", name = "mode", havingValue = "index", matchIfMissing = true)
+public class PostSearchIndex {
+
+    /** BM25 词频饱和参数 */
+    private static final float K1 = 1.2f;
+
+    /** BM25 文档长度归一化参数 */
+    private static final float B = 0.75f;
+
+    private static final float TAGS_WEIGHT = 2.0f;
+    private static final float SUMMARY_WEIGHT = 1.5f;
+    private static final float CONTENT_WEIGHT = 1.0f;
+
+    private final PostRepository postRepository;
+
+    /** 标题中词频的权重 */
+    @Value("${blog.search.title-boost:3.0}")
+    private float titleBoost;
+
+    @Value("${blog.search.rebuild-chunk-size:500}")
+    private int chunkSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 词 -> 倒排列表 */
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    /**
+     * 文章ID -> 内部文档编号
+     *
+     * 说明：文章更新时分配新编号，保证倒排列表只需追加；旧编号在编号用尽时由 compact 统一回收
+     */
+    private final Map<Long, Integer> docByPostId = new HashMap<>();
+
+    /** 内部文档编号 -> 文章ID */
+    private long[] postIds = new long[1024];
+
+    /** 内部文档编号 -> 加权文档长度 */
+    private float[] lengths = new float[1024];
+
+    /** 内部文档编号 -> 文档包含的词（删除文档时用于定位倒排列表） */
+    private String[][] docTerms = new String[1024][];
+
+    private int nextDoc;
+    private int liveDocs;
+    private double totalLength;
+
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+
+    /** 重建期间被增量更新过的文章，重建时跳过以免旧数据覆盖新数据 */
+    private final Set<Long> updatedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 索引是否已可用（启动重建完成）
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 搜索已发布文章
+     *
+     * @param query 查询字符串
+     * @param limit 最多返回的文章数（分页时为 offset + pageSize；超过可能命中的文章数时按后者分配结果空间）
+     * @return 命中总数和按相关度从高到低排序的前 limit 篇文章ID；没有可用的查询词时为空结果
+     */
+    public SearchHits search(String query, int limit) {
+        return search(query, limit, null);
+    }
+
+    /**
+     * 在候选范围内搜索已发布文章（分面搜索）
+     *
+     * @param query 查询字符串
+     * @param limit 最多返回的文章数
+     * @param candidates 候选文章ID，为 null 时不限；不为 null 时只对候选文章打分，并在结果中返回命中集合
+     * @return 命中总数、排序后的前 limit 篇文章ID，以及命中集合（candidates 为 null 时为 null）
+     */
+    public SearchHits search(String query, int limit, RoaringBitmap candidates) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (Tokenizer.Token token : Tokenizer.tokenizeQuery(query)) {
+            terms.add(token.term());
+        }
+        if (terms.isEmpty()) {
+            return SearchHits.empty(candidates);
+        }
+
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    return SearchHits.empty(candidates);
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(PostingList::size));
+
+            float[] idfs = new float[lists.size()];
+            for (int t = 0; t < lists.size(); t++) {
+                idfs[t] = idf(lists.get(t).size());
+            }
+            float avgLength = liveDocs > 0 ? (float) (totalLength / liveDocs) : 1f;
+
+            // 小顶堆保留得分最高的 limit 篇，堆顶为当前第 limit 名；命中数不会超过最短的倒排列表，
+            // 调用方传入的深分页 limit 不会按原值分配空间
+            PostingList shortest = lists.get(0);
+            TopHits top = new TopHits(Math.min(limit, shortest.size()));
+            int total = 0;
+            RoaringBitmap matched = candidates != null ? new RoaringBitmap() : null;
+            documents:
+            for (int i = 0; i < shortest.size(); i++) {
+                int doc = shortest.docAt(i);
+                if (candidates != null && !candidates.contains((int) postIds[doc])) {
+                    continue;
+                }
+                float norm = K1 * (1 - B + B * lengths[doc] / avgLength);
+                float score = bm25(shortest.weightAt(i), norm, idfs[0]);
+                for (int t = 1; t < lists.size(); t++) {
+                    float weight = lists.get(t).weightOf(doc);
+                    if (weight < 0) {
+                        continue documents;
+                    }
+                    score += bm25(weight, norm, idfs[t]);
+                }
+                total++;
+                top.offer(postIds[doc], score);
+                if (matched != null) {
+                    matched.add((int) postIds[doc]);
+                }
+            }
+            return new SearchHits(total, top.toSortedList(), matched);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 添加或替换一篇文章的索引
+     */
+    public void index(SearchDocument document) {
+        index(document, false);
+    }
+
+    /**
+     * 添加或替换一篇文章的索引
+     *
+     * @param skipIfUpdated 为 true 时（重建），若该文章在重建期间已被增量更新则跳过；
+     *                      检查与写入在同一把写锁内完成，避免旧数据覆盖新数据
+     */
+    private void index(SearchDocument document, boolean skipIfUpdated) {
+        Map<String, Float> termWeights = new HashMap<>();
+        float length = addField(termWeights, document.title(), titleBoost)
+                + addField(termWeights, document.tags(), TAGS_WEIGHT)
+                + addField(termWeights, document.summary(), SUMMARY_WEIGHT)
+                + addField(termWeights, document.content(), CONTENT_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            if (skipIfUpdated && updatedDuringRebuild.contains(document.id())) {
+                return;
+            }
+            removeLocked(document.id());
+            int doc = allocateDoc();
+            String[] terms = new String[termWeights.size()];
+            int t = 0;
+            for (Map.Entry<String, Float> entry : termWeights.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), key -> new PostingList()).add(doc, entry.getValue());
+                terms[t++] = entry.getKey();
+            }
+            postIds[doc] = document.id();
+            lengths[doc] = length;
+            docTerms[doc] = terms;
+            docByPostId.put(document.id(), doc);
+            liveDocs++;
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 从索引中移除一篇文章
+     */
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 文章创建、更新（含发布/撤回）、删除后增量更新索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        // 先登记再读库：重建中读到的旧数据不会再覆盖这里写入的新数据
+        if (rebuilding) {
+            updatedDuringRebuild.add(event.postId());
+        }
+        if (event.type() == PostChangedEvent.Type.DELETED) {
+            remove(event.postId());
+            return;
+        }
+        // 只索引已发布的文章，撤回为草稿时从索引中移除
+        postRepository.findSearchDocumentById(event.postId())
+                .ifPresentOrElse(this::index, () -> remove(event.postId()));
+    }
+
+    /**
+     * 启动完成后从数据库分块重建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        try {
+            Long afterId = 0L;
+            while (true) {
+                List<SearchDocument> documents = postRepository.findSearchDocumentsAfterId(
+                        afterId, PageRequest.of(0, chunkSize));
+                if (documents.isEmpty()) {
+                    break;
+                }
+                for (SearchDocument document : documents) {
+                    index(document, true);
+                }
+                afterId = documents.get(documents.size() - 1).id();
+            }
+        } finally {
+            rebuilding = false;
+            updatedDuringRebuild.clear();
+        }
+        ready = true;
+
+        lock.readLock().lock();
+        try {
+            log.info("搜索索引重建完成 - 文章数: {}, 词数: {}, 耗时: {}ms",
+                    liveDocs, postings.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 累加一个字段的加权词频
+     *
+     * @return 字段的加权长度
+     */
+    private float addField(Map<String, Float> termWeights, String text, float weight) {
+        List<Tokenizer.Token> tokens = Tokenizer.tokenizeForIndex(text);
+        for (Tokenizer.Token token : tokens) {
+            termWeights.merge(token.term(), weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    private void removeLocked(Long postId) {
+        Integer doc = docByPostId.remove(postId);
+        if (doc == null) {
+            return;
+        }
+        for (String term : docTerms[doc]) {
+            PostingList list = postings.get(term);
+            list.remove(doc);
+            if (list.size() == 0) {
+                postings.remove(term);
+            }
+        }
+        docTerms[doc] = null;
+        liveDocs--;
+        totalLength -= lengths[doc];
+    }
+
+    /**
+     * 分配新的内部文档编号；编号用尽时，已删除文档占一半以上则先回收，否则扩容
+     */
+    private int allocateDoc() {
+        if (nextDoc == postIds.length) {
+            if (nextDoc - liveDocs >= nextDoc / 2) {
+                compact();
+            } else {
+                int capacity = postIds.length * 2;
+                postIds = Arrays.copyOf(postIds, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                docTerms = Arrays.copyOf(docTerms, capacity);
+            }
+        }
+        return nextDoc++;
+    }
+
+    /**
+     * 回收已删除（含更新前）文档的编号：存活文档按原顺序重新编号为 0..liveDocs-1
+     *
+     * 说明：新编号保持相对顺序，倒排列表原地改写后仍然有序；数组大小因此不超过存活文档数的两倍，
+     * 每次回收的开销为 O(倒排记录总数)，均摊到此前的每次分配为常数
+     */
+    private void compact() {
+        int[] newDocs = new int[nextDoc];
+        int live = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (docTerms[doc] == null) {
+                continue;
+            }
+            newDocs[doc] = live;
+            postIds[live] = postIds[doc];
+            lengths[live] = lengths[doc];
+            docTerms[live] = docTerms[doc];
+            docByPostId.put(postIds[live], live);
+            live++;
+        }
+        Arrays.fill(docTerms, live, nextDoc, null);
+        for (PostingList list : postings.values()) {
+            list.remap(newDocs);
+        }
+        log.debug("搜索索引回收文档编号 - 回收前: {}, 存活: {}", nextDoc, live);
+        nextDoc = live;
+    }
+
+    private float idf(int docFrequency) {
+        return (float) Math.log(1 + (liveDocs - docFrequency + 0.5) / (docFrequency + 0.5));
+    }
+
+    private static float bm25(float termWeight, float norm, float idf) {
+        return idf * termWeight * (K1 + 1) / (termWeight + norm);
+    }
+
+    /**
+     * 搜索结果
+     *
+     * @param total 命中的文章总数
+     * @param postIds 按相关度排序的前若干篇文章ID
+     * @param matched 候选范围内命中的全部文章ID（未指定候选范围时为 null）
+     */
+    public record SearchHits(int total, List<Long> postIds, RoaringBitmap matched) {
+
+        static SearchHits empty(RoaringBitmap candidates) {
+            return new SearchHits(0, Collections.emptyList(), candidates != null ? new RoaringBitmap() : null);
+        }
+    }
+
+    /**
+     * 定长小顶堆，保留得分最高的前 N 篇文章（得分相同时新文章即ID较大者优先）
+     */
+    private static final class TopHits {
+
+        private final int capacity;
+        private final long[] ids;
+        private final float[] scores;
+        private int size;
+
+        TopHits(int capacity) {
+            this.capacity = Math.max(0, capacity);
+            this.ids = new long[this.capacity];
+            this.scores = new float[this.capacity];
+        }
+
+        void offer(long id, float score) {
+            if (size < capacity) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (capacity > 0 && worse(0, id, score)) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        List<Long> toSortedList() {
+            Long[] sorted = new Long[size];
+            while (size > 0) {
+                sorted[size - 1] = ids[0];
+                size--;
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return Arrays.asList(sorted);
+        }
+
+        /** 堆中位置 i 的结果是否排在 (id, score) 之后 */
+        private boolean worse(int i, long id, float score) {
+            return scores[i] != score ? scores[i] < score : ids[i] < id;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!worse(i, ids[parent], scores[parent])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && worse(left, ids[smallest], scores[smallest])) {
+                    smallest = left;
+                }
+                if (right < size && worse(right, ids[smallest], scores[smallest])) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.blog.search;
+
+import com.blog.dto.PostSummaryDTO;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * 文章搜索策略
+ *
+ * 说明：启动时根据 blog.search.mode 选择唯一的实现
+ * - index（默认）：内存倒排索引 + BM25，见 IndexSearchStrategy
+ * - fulltext：MySQL FULLTEXT（ngram 分词）MATCH ... AGAINST，见 FullTextSearchStrategy
+ * - like：LIKE 模糊匹配，见 LikeSearchStrategy
+ */
+public interface PostSearchStrategy {
+
+    /**
+     * 搜索已发布文章，结果按相关度排序（LIKE 模式不排序）
+     *
+     * @param keyword 搜索关键词
+     * @param pageable 分页参数（排序参数被忽略）
+     * @return 文章列表卡片分页数据
+     */
+    Page<PostSummaryDTO> search(String keyword, Pageable pageable);
+
+    /**
+     * 在候选文章范围内搜索（分面搜索），返回全部命中集合以便统计分面
+     *
+     * @param keyword 搜索关键词
+     * @param candidates 满足筛选条件的已发布文章ID
+     * @param limit 最多返回的排序结果数（分页时为 offset + pageSize）
+     * @return 命中集合和排序后的前 limit 篇文章ID
+     */
+    MatchedPosts searchWithin(String keyword, RoaringBitmap candidates, int limit);
+}
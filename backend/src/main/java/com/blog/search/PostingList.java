@@ -0,0 +1,72 @@
+package com.blog.search;
+
+import java.util.Arrays;
+
+/**
+ * 倒排列表：按内部文档编号升序存放 (文档编号, 加权词频)
+ *
+ * 说明：
+ * - 使用基本类型数组，避免每条记录装箱成对象
+ * - 新文档的编号总是递增的，追加即可保持有序；删除时二分定位后整体前移
+ * - 索引回收编号时按保序映射改写（见 remap），改写后仍然有序
+ * - 非线程安全，由 PostSearchIndex 的读写锁保护
+ */
+final class PostingList {
+
+    private int[] docs = new int[4];
+    private float[] weights = new float[4];
+    private int size;
+
+    void add(int doc, float weight) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        docs[size] = doc;
+        weights[size] = weight;
+        size++;
+    }
+
+    void remove(int doc) {
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+        System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * 按新旧编号映射改写文档编号（映射保持原有顺序）
+     *
+     * @param newDocs 旧编号 -> 新编号
+     */
+    void remap(int[] newDocs) {
+        for (int i = 0; i < size; i++) {
+            docs[i] = newDocs[docs[i]];
+        }
+    }
+
+    /**
+     * 查找文档的加权词频
+     *
+     * @return 不包含该文档时返回 -1
+     */
+    float weightOf(int doc) {
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        return index >= 0 ? weights[index] : -1f;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int docAt(int index) {
+        return docs[index];
+    }
+
+    float weightAt(int index) {
+        return weights[index];
+    }
+}
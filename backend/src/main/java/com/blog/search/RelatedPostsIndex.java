@@ -0,0 +1,333 @@
+package com.blog.search;
+
+import com.blog.dto.RelatedPostDTO;
+import com.blog.event.PostChangedEvent;
+import com.blog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 相关文章的内存预计算索引
+ *
+ * 功能说明：
+ * - 内存中保存已发布文章的标签集合和 标签 -> 文章 的倒排表
+ * - 两篇文章的得分为标签 Jaccard 相似度，同分类、发布时间接近时按配置加权
+ * - 候选文章从文章最稀有的标签开始收集（最多 blog.related.max-candidates 篇），
+ *   热门标签（如 "java"）不会让一次计算扫描全部文章
+ * - 启动完成后加载并为每篇文章预计算前 K 篇相关文章；请求时直接读取内存，不执行任何关联查询
+ *
+ * 增量更新：
+ * - 文章的标签、分类或发布状态变化后（PostChangedEvent），重新读取该文章并丢弃它自己的结果
+ * - 与它有共同标签的文章中，只有结果里包含它、或它的新得分能进入前 K 的，才丢弃结果，下次读取时重新计算
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RelatedPostsIndex {
+
+    private final PostRepository postRepository;
+
+    /** 每篇文章保留的相关文章数 */
+    @Value("${blog.related.size:5}")
+    private int size;
+
+    /** 同分类时增加的权重 */
+    @Value("${blog.related.category-boost:0.2}")
+    private double categoryBoost;
+
+    /** 发布时间接近时最多增加的权重 */
+    @Value("${blog.related.recency-boost:0.1}")
+    private double recencyBoost;
+
+    /** 发布时间相差多少天时，时间权重衰减为一半 */
+    @Value("${blog.related.recency-half-life-days:180}")
+    private double recencyHalfLifeDays;
+
+    /** 单次计算最多比较的候选文章数 */
+    @Value("${blog.related.max-candidates:1000}")
+    private int maxCandidates;
+
+    @Value("${blog.search.rebuild-chunk-size:500}")
+    private int chunkSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 文章ID -> 文章 */
+    private final Map<Long, Doc> docs = new HashMap<>();
+
+    /** 标签ID -> 文章ID */
+    private final Map<Long, Set<Long>> postsByTag = new HashMap<>();
+
+    /** 文章ID -> 按得分降序的相关文章（缺失表示需要重新计算） */
+    private final Map<Long, List<Neighbor>> related = new ConcurrentHashMap<>();
+
+    private volatile boolean rebuilding;
+
+    /** 重建期间被增量更新过的文章，重建时跳过以免旧数据覆盖新数据 */
+    private final Set<Long> updatedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 获取相关文章
+     *
+     * @return 按相似度降序的相关文章；文章不存在或未发布时为空列表
+     */
+    public List<RelatedPostDTO> getRelated(Long postId) {
+        lock.readLock().lock();
+        try {
+            Doc doc = docs.get(postId);
+            if (doc == null) {
+                return Collections.emptyList();
+            }
+            List<RelatedPostDTO> result = new ArrayList<>();
+            for (Neighbor neighbor : related.computeIfAbsent(postId, id -> computeNeighbors(doc))) {
+                Doc other = docs.get(neighbor.postId());
+                if (other != null) {
+                    result.add(new RelatedPostDTO(other.id(), other.title(), other.categoryId(),
+                            other.createdAt(), neighbor.score()));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 文章创建、更新（含发布/撤回）、删除后增量更新
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        // 先登记再读库：重建中读到的旧数据不会再覆盖这里写入的新数据
+        if (rebuilding) {
+            updatedDuringRebuild.add(event.postId());
+        }
+        Doc doc = null;
+        if (event.type() != PostChangedEvent.Type.DELETED) {
+            doc = postRepository.findRelatedDocumentById(event.postId())
+                    .map(document -> toDoc(document, loadTagIds(List.of(document.id())).get(document.id())))
+                    .orElse(null);
+        }
+        put(event.postId(), doc, false);
+    }
+
+    /**
+     * 启动完成后加载全部已发布文章并预计算相关文章
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        List<Long> postIds = new ArrayList<>();
+        try {
+            Long afterId = 0L;
+            while (true) {
+                List<RelatedDocument> documents = postRepository.findRelatedDocumentsAfterId(
+                        afterId, PageRequest.of(0, chunkSize));
+                if (documents.isEmpty()) {
+                    break;
+                }
+                Map<Long, List<Long>> tagIds = loadTagIds(documents.stream().map(RelatedDocument::id).toList());
+                for (RelatedDocument document : documents) {
+                    put(document.id(), toDoc(document, tagIds.get(document.id())), true);
+                    postIds.add(document.id());
+                }
+                afterId = documents.get(documents.size() - 1).id();
+            }
+        } finally {
+            rebuilding = false;
+            updatedDuringRebuild.clear();
+        }
+
+        // 加载期间被请求而按不完整数据算出的结果全部作废
+        related.clear();
+        long loaded = System.currentTimeMillis();
+        postIds.forEach(this::getRelated);
+        log.info("相关文章预计算完成 - 文章数: {}, 加载耗时: {}ms, 计算耗时: {}ms",
+                postIds.size(), loaded - start, System.currentTimeMillis() - loaded);
+    }
+
+    /**
+     * 添加、替换或移除（doc 为 null）一篇文章，并丢弃受影响文章的结果
+     *
+     * @param skipIfUpdated 为 true 时（重建），若该文章在重建期间已被增量更新则跳过
+     */
+    private void put(Long postId, Doc doc, boolean skipIfUpdated) {
+        lock.writeLock().lock();
+        try {
+            if (skipIfUpdated && updatedDuringRebuild.contains(postId)) {
+                return;
+            }
+            Doc previous = docs.remove(postId);
+            if (previous != null) {
+                for (long tagId : previous.tagIds()) {
+                    Set<Long> posts = postsByTag.get(tagId);
+                    posts.remove(postId);
+                    if (posts.isEmpty()) {
+                        postsByTag.remove(tagId);
+                    }
+                }
+            }
+            if (doc != null) {
+                docs.put(postId, doc);
+                for (long tagId : doc.tagIds()) {
+                    postsByTag.computeIfAbsent(tagId, key -> new HashSet<>()).add(postId);
+                }
+            }
+            related.remove(postId);
+
+            // 重建加载阶段各文章的结果尚未计算，无需检查
+            if (skipIfUpdated) {
+                return;
+            }
+            Set<Long> affected = new HashSet<>();
+            for (Doc changed : Arrays.asList(previous, doc)) {
+                if (changed != null) {
+                    for (long tagId : changed.tagIds()) {
+                        affected.addAll(postsByTag.getOrDefault(tagId, Collections.emptySet()));
+                    }
+                }
+            }
+            affected.remove(postId);
+            for (Long otherId : affected) {
+                List<Neighbor> neighbors = related.get(otherId);
+                if (neighbors != null && isStale(neighbors, postId, doc != null ? score(docs.get(otherId), doc) : 0)) {
+                    related.remove(otherId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 某篇文章变化后，另一篇文章已计算的结果是否需要重新计算
+     */
+    private boolean isStale(List<Neighbor> neighbors, Long changedId, double newScore) {
+        for (Neighbor neighbor : neighbors) {
+            if (neighbor.postId() == changedId) {
+                return true;
+            }
+        }
+        return newScore > 0 && (neighbors.size() < size || newScore > neighbors.get(neighbors.size() - 1).score());
+    }
+
+    private List<Neighbor> computeNeighbors(Doc doc) {
+        if (doc.tagIds().length == 0 || size <= 0) {
+            return Collections.emptyList();
+        }
+
+        // 从最稀有的标签开始收集候选，稀有标签对相似度的区分度最高
+        List<Set<Long>> postings = new ArrayList<>();
+        for (long tagId : doc.tagIds()) {
+            postings.add(postsByTag.getOrDefault(tagId, Collections.emptySet()));
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Long> candidates = new HashSet<>();
+        collect:
+        for (Set<Long> posting : postings) {
+            for (Long candidate : posting) {
+                if (candidates.size() >= maxCandidates) {
+                    break collect;
+                }
+                candidates.add(candidate);
+            }
+        }
+        candidates.remove(doc.id());
+
+        // 小顶堆保留得分最高的 size 篇
+        PriorityQueue<Neighbor> top = new PriorityQueue<>(size + 1, Comparator.comparingDouble(Neighbor::score));
+        for (Long candidate : candidates) {
+            double score = score(doc, docs.get(candidate));
+            if (score > 0) {
+                top.offer(new Neighbor(candidate, score));
+                if (top.size() > size) {
+                    top.poll();
+                }
+            }
+        }
+        List<Neighbor> neighbors = new ArrayList<>(top);
+        neighbors.sort(Comparator.comparingDouble(Neighbor::score).reversed()
+                .thenComparing(Neighbor::postId, Comparator.reverseOrder()));
+        return List.copyOf(neighbors);
+    }
+
+    /**
+     * 两篇文章的相似度：Jaccard × (1 + 同分类权重 + 时间接近权重)
+     */
+    private double score(Doc a, Doc b) {
+        int shared = intersectionSize(a.tagIds(), b.tagIds());
+        if (shared == 0) {
+            return 0;
+        }
+        double jaccard = (double) shared / (a.tagIds().length + b.tagIds().length - shared);
+        double boost = 1;
+        if (a.categoryId() != null && Objects.equals(a.categoryId(), b.categoryId())) {
+            boost += categoryBoost;
+        }
+        double days = Math.abs(Duration.between(a.createdAt(), b.createdAt()).toHours()) / 24.0;
+        boost += recencyBoost * Math.pow(0.5, days / recencyHalfLifeDays);
+        return jaccard * boost;
+    }
+
+    private static int intersectionSize(long[] a, long[] b) {
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                count++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private Map<Long, List<Long>> loadTagIds(Collection<Long> postIds) {
+        Map<Long, List<Long>> tagIds = new HashMap<>();
+        for (Object[] row : postRepository.findTagIdsByPostIds(postIds)) {
+            tagIds.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+        }
+        return tagIds;
+    }
+
+    private static Doc toDoc(RelatedDocument document, List<Long> tagIds) {
+        long[] sorted = tagIds == null ? new long[0] : tagIds.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new Doc(document.id(), document.title(), document.categoryId(), document.createdAt(), sorted);
+    }
+
+    /**
+     * 内存中的文章（tagIds 升序排列，便于求交集）
+     */
+    private record Doc(Long id, String title, Long categoryId, LocalDateTime createdAt, long[] tagIds) {
+    }
+
+    private record Neighbor(long postId, double score) {
+    }
+}
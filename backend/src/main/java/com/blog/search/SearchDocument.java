@@ -0,0 +1,9 @@
+package com.blog.search;
+
+/**
+ * 建立搜索索引所需的文章字段
+ *
+ * 说明：由 PostRepository 通过 JPQL 构造器表达式直接查询生成，不加载 Post 实体
+ */
+public record SearchDocument(Long id, String title, String summary, String content, String tags) {
+}
@@ -0,0 +1,147 @@
+package com.blog.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 搜索结果摘要片段生成器
+ *
+ * 规则：
+ * - 对正文分词一次（见 Tokenizer），用词元的起止偏移定位查询词，不对每个查询词反复 indexOf
+ * - 在长度不超过 maxLength 的窗口中，选择包含不同查询词最多（其次命中次数最多）的一段
+ * - 输出时对原文做 HTML 转义并合并连续空白，命中词用 &lt;mark&gt; 包裹，截断处加省略号
+ * - 正文没有命中（例如只命中标题）时返回正文开头
+ */
+public final class SnippetBuilder {
+
+    private static final String ELLIPSIS = "…";
+
+    private SnippetBuilder() {
+    }
+
+    /**
+     * 生成带高亮的摘要片段
+     *
+     * @param text 正文
+     * @param queryTerms 查询词（Tokenizer.tokenizeQuery 的输出）
+     * @param maxLength 片段最大字符数（不含标记和省略号）
+     * @return HTML 片段；正文为空时返回 null
+     */
+    public static String build(String text, Set<String> queryTerms, int maxLength) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+
+        List<Tokenizer.Token> matches = new ArrayList<>();
+        for (Tokenizer.Token token : Tokenizer.tokenizeForIndex(text)) {
+            if (queryTerms.contains(token.term())) {
+                matches.add(token);
+            }
+        }
+        // 中日韩文字的单字和二元组交替输出，按起始偏移重新排序
+        matches.sort(Comparator.comparingInt(Tokenizer.Token::start));
+
+        int windowStart = 0;
+        int windowEnd = Math.min(text.length(), maxLength);
+        if (!matches.isEmpty()) {
+            int[] best = bestWindow(matches, maxLength);
+            int spanStart = matches.get(best[0]).start();
+            int spanEnd = matches.get(best[1]).end();
+            // 命中区间居中，两侧补足上下文
+            windowStart = Math.max(0, spanStart - (maxLength - (spanEnd - spanStart)) / 2);
+            windowEnd = Math.min(text.length(), windowStart + maxLength);
+            windowStart = Math.max(0, Math.min(windowStart, windowEnd - maxLength));
+        }
+        if (windowStart > 0 && Character.isLowSurrogate(text.charAt(windowStart))) {
+            windowStart++;
+        }
+        if (windowEnd < text.length() && Character.isLowSurrogate(text.charAt(windowEnd))) {
+            windowEnd--;
+        }
+
+        StringBuilder snippet = new StringBuilder(maxLength + 64);
+        if (windowStart > 0) {
+            snippet.append(ELLIPSIS);
+        }
+        int position = windowStart;
+        int markEnd = -1;
+        for (Tokenizer.Token match : matches) {
+            int start = Math.max(match.start(), position);
+            int end = Math.min(match.end(), windowEnd);
+            if (start >= end) {
+                continue;
+            }
+            appendEscaped(snippet, text, position, start);
+            // 与上一个高亮相邻或重叠（如单字和二元组）时合并为一个标记
+            if (start == markEnd) {
+                snippet.setLength(snippet.length() - "</mark>".length());
+            } else {
+                snippet.append("<mark>");
+            }
+            appendEscaped(snippet, text, start, end);
+            snippet.append("</mark>");
+            position = end;
+            markEnd = end;
+        }
+        appendEscaped(snippet, text, position, windowEnd);
+        if (windowEnd < text.length()) {
+            snippet.append(ELLIPSIS);
+        }
+        return snippet.toString().trim();
+    }
+
+    /**
+     * 双指针扫描命中列表，返回最佳窗口的首尾命中下标
+     */
+    private static int[] bestWindow(List<Tokenizer.Token> matches, int maxLength) {
+        Map<String, Integer> termCounts = new HashMap<>();
+        int[] best = {0, 0};
+        int bestDistinct = 0;
+        int bestCount = 0;
+        int left = 0;
+        for (int right = 0; right < matches.size(); right++) {
+            termCounts.merge(matches.get(right).term(), 1, Integer::sum);
+            while (left < right && matches.get(right).end() - matches.get(left).start() > maxLength) {
+                termCounts.computeIfPresent(matches.get(left).term(), (term, count) -> count > 1 ? count - 1 : null);
+                left++;
+            }
+            int count = right - left + 1;
+            if (termCounts.size() > bestDistinct || (termCounts.size() == bestDistinct && count > bestCount)) {
+                bestDistinct = termCounts.size();
+                bestCount = count;
+                best[0] = left;
+                best[1] = right;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 追加 HTML 转义后的原文，连续空白合并为一个空格
+     */
+    private static void appendEscaped(StringBuilder out, String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> {
+                    if (Character.isWhitespace(c)) {
+                        if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+                            out.append(' ');
+                        }
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.blog.search;
+
+/**
+ * 构建输入提示所需的文章字段（不含正文）
+ *
+ * 说明：由 PostRepository 通过 JPQL 构造器表达式直接查询生成
+ */
+public record SuggestDocument(Long id, String title, String tags, Integer views) {
+}
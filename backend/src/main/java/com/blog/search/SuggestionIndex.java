@@ -0,0 +1,339 @@
+package com.blog.search;
+
+import com.blog.dto.SuggestionDTO;
+import com.blog.event.PostChangedEvent;
+import com.blog.repository.PostRepository;
+import com.blog.service.ViewCountService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 搜索框输入提示索引
+ *
+ * 功能说明：
+ * - 对已发布文章的标题和标签名建立有序数组，按前缀二分查找，不访问数据库
+ * - 标题从每个单词开头各生成一个键，输入标题中间的单词也能匹配；中日韩文字没有分词边界，
+ *   与 Tokenizer 一致按单字切分，从每个字开始各生成一个键（"入门" 可以匹配 "Spring Boot入门教程"）
+ * - 键只保留前 MAX_KEY_LENGTH 个字符，更长的输入按该长度匹配，长标题的键不会占用过多内存
+ * - 按浏览量加权：文章为自身浏览量，标签为所属文章浏览量之和
+ * - 前缀范围内用线段树（区间最大值）依次取出权重最高的条目，取前N条为 O(N log n)，与范围大小无关
+ *
+ * 更新机制：
+ * - 启动时从数据库加载标题、标签和浏览量（不读取正文）
+ * - 文章发布、修改、撤回、删除后由 PostChangedEvent 更新内存中的文章表，并标记需要重建
+ * - 定时任务合并短时间内的多次变更后重建一次快照（去抖）；另按较长间隔刷新浏览量权重
+ * - 快照不可变，重建完成后整体替换，查询无需加锁
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SuggestionIndex {
+
+    /** 每个标题最多从单词开头生成的键数 */
+    private static final int MAX_KEYS_PER_TEXT = 8;
+
+    /** 每个标题最多从中日韩单字生成的键数 */
+    private static final int MAX_CJK_KEYS_PER_TEXT = 32;
+
+    /** 键的最大长度（字符数） */
+    private static final int MAX_KEY_LENGTH = 32;
+
+    private final PostRepository postRepository;
+    private final ViewCountService viewCountService;
+
+    @Value("${blog.suggest.max-limit:20}")
+    private int maxLimit;
+
+    @Value("${blog.suggest.load-chunk-size:1000}")
+    private int chunkSize;
+
+    /** 文章ID -> 提示数据 */
+    private final Map<Long, PostEntry> posts = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private volatile Snapshot snapshot = Snapshot.build(Collections.emptyList());
+
+    /**
+     * 获取输入提示
+     *
+     * @param prefix 用户已输入的前缀（不区分大小写）
+     * @param limit 返回条数
+     * @return 按权重从高到低排序的提示
+     */
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        return snapshot.topN(prefix.trim().toLowerCase(Locale.ROOT), Math.max(1, Math.min(limit, maxLimit)));
+    }
+
+    /**
+     * 启动完成后加载所有已发布文章的标题、标签和浏览量
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Long afterId = 0L;
+        while (true) {
+            List<SuggestDocument> documents = postRepository.findSuggestDocumentsAfterId(
+                    afterId, PageRequest.of(0, chunkSize));
+            if (documents.isEmpty()) {
+                break;
+            }
+            documents.forEach(document -> posts.putIfAbsent(document.id(), toEntry(document)));
+            afterId = documents.get(documents.size() - 1).id();
+        }
+        rebuild();
+    }
+
+    /**
+     * 文章发布、修改、撤回、删除后更新文章表，由 rebuildIfDirty 合并重建
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.type() == PostChangedEvent.Type.DELETED) {
+            posts.remove(event.postId());
+        } else {
+            postRepository.findSuggestDocumentById(event.postId())
+                    .ifPresentOrElse(document -> posts.put(document.id(), toEntry(document)),
+                            () -> posts.remove(event.postId()));
+        }
+        dirty.set(true);
+    }
+
+    /**
+     * 有变更时重建快照（去抖：间隔内的多次变更只重建一次）
+     */
+    @Scheduled(fixedDelayString = "${blog.suggest.rebuild-delay:1000}")
+    public void rebuildIfDirty() {
+        if (dirty.compareAndSet(true, false)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 定期重建快照以刷新浏览量权重
+     */
+    @Scheduled(initialDelayString = "${blog.suggest.refresh-interval:300000}",
+               fixedDelayString = "${blog.suggest.refresh-interval:300000}")
+    public void refreshWeights() {
+        rebuild();
+    }
+
+    private synchronized void rebuild() {
+        long start = System.nanoTime();
+        List<Suggestion> suggestions = new ArrayList<>();
+        Map<String, Suggestion> tags = new HashMap<>();
+        for (PostEntry post : posts.values()) {
+            long views = Math.max(0, post.viewsBase() + viewCountService.getRecordedViews(post.id()));
+            suggestions.add(new Suggestion(SuggestionDTO.Type.POST, post.title(), post.id(), views));
+            if (post.tags() == null) {
+                continue;
+            }
+            for (String tag : post.tags().split(",")) {
+                String name = tag.trim();
+                if (!name.isEmpty()) {
+                    tags.merge(name.toLowerCase(Locale.ROOT), new Suggestion(SuggestionDTO.Type.TAG, name, null, views),
+                            (a, b) -> new Suggestion(a.type(), a.text(), null, a.weight() + b.weight()));
+                }
+            }
+        }
+        suggestions.addAll(tags.values());
+        Snapshot rebuilt = Snapshot.build(suggestions);
+        snapshot = rebuilt;
+        log.debug("输入提示快照重建完成 - 条目数: {}, 键数: {}, 耗时: {}ms",
+                suggestions.size(), rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private PostEntry toEntry(SuggestDocument document) {
+        // 与文章详情缓存相同：基准值 + 累计记录的浏览量 = 最新浏览量
+        long viewsBase = document.views() + viewCountService.getPendingViews(document.id(), document.views())
+                - viewCountService.getRecordedViews(document.id());
+        return new PostEntry(document.id(), document.title(), document.tags(), viewsBase);
+    }
+
+    private record PostEntry(Long id, String title, String tags, long viewsBase) {
+    }
+
+    private record Suggestion(SuggestionDTO.Type type, String text, Long postId, long weight) {
+
+        SuggestionDTO toDTO() {
+            return new SuggestionDTO(type, text, postId);
+        }
+    }
+
+    /**
+     * 不可变快照：按键排序的数组 + 区间最大权重线段树
+     */
+    private static final class Snapshot {
+
+        private final String[] keys;
+        private final Suggestion[] suggestionOfKey;
+        /** 线段树，叶子从 leafBase 开始，节点存放区间内权重最大的键下标 */
+        private final int[] tree;
+        private final int leafBase;
+
+        private Snapshot(String[] keys, Suggestion[] suggestionOfKey) {
+            this.keys = keys;
+            this.suggestionOfKey = suggestionOfKey;
+            int base = 1;
+            while (base < Math.max(1, keys.length)) {
+                base <<= 1;
+            }
+            this.leafBase = base;
+            this.tree = new int[base * 2];
+            Arrays.fill(tree, -1);
+            for (int i = 0; i < keys.length; i++) {
+                tree[base + i] = i;
+            }
+            for (int node = base - 1; node >= 1; node--) {
+                tree[node] = better(tree[node * 2], tree[node * 2 + 1]);
+            }
+        }
+
+        static Snapshot build(List<Suggestion> suggestions) {
+            List<Map.Entry<String, Suggestion>> entries = new ArrayList<>();
+            for (Suggestion suggestion : suggestions) {
+                for (String key : keysOf(suggestion.text())) {
+                    entries.add(Map.entry(key, suggestion));
+                }
+            }
+            entries.sort(Map.Entry.comparingByKey());
+            String[] keys = new String[entries.size()];
+            Suggestion[] suggestionOfKey = new Suggestion[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                keys[i] = entries.get(i).getKey();
+                suggestionOfKey[i] = entries.get(i).getValue();
+            }
+            return new Snapshot(keys, suggestionOfKey);
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        /**
+         * 取前缀范围内权重最高的 limit 条（同一条目通过多个键命中时只返回一次）
+         */
+        List<SuggestionDTO> topN(String prefix, int limit) {
+            if (prefix.length() > MAX_KEY_LENGTH) {
+                prefix = prefix.substring(0, MAX_KEY_LENGTH);
+            }
+            int from = lowerBound(prefix);
+            int to = lowerBound(prefix + Character.MAX_VALUE);
+            List<SuggestionDTO> result = new ArrayList<>();
+            if (from >= to) {
+                return result;
+            }
+
+            // 候选区间按区间内最大权重排序，每次取出最大者后把区间一分为二
+            PriorityQueue<int[]> ranges = new PriorityQueue<>(
+                    Comparator.comparingLong((int[] range) -> suggestionOfKey[range[2]].weight()).reversed());
+            ranges.add(new int[]{from, to - 1, argMax(from, to - 1)});
+            Set<Suggestion> seen = new HashSet<>();
+            while (!ranges.isEmpty() && result.size() < limit) {
+                int[] range = ranges.poll();
+                int best = range[2];
+                Suggestion suggestion = suggestionOfKey[best];
+                if (seen.add(suggestion)) {
+                    result.add(suggestion.toDTO());
+                }
+                if (range[0] < best) {
+                    ranges.add(new int[]{range[0], best - 1, argMax(range[0], best - 1)});
+                }
+                if (best < range[1]) {
+                    ranges.add(new int[]{best + 1, range[1], argMax(best + 1, range[1])});
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 查询闭区间 [left, right] 内权重最大的键下标
+         */
+        private int argMax(int left, int right) {
+            int best = -1;
+            for (int l = left + leafBase, r = right + leafBase + 1; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    best = better(best, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    best = better(best, tree[--r]);
+                }
+            }
+            return best;
+        }
+
+        private int better(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            if (b < 0) {
+                return a;
+            }
+            return suggestionOfKey[b].weight() > suggestionOfKey[a].weight() ? b : a;
+        }
+
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * 从文本中每个单词的开头、每个中日韩单字各生成一个小写键（截断到 MAX_KEY_LENGTH）
+         */
+        private static List<String> keysOf(String text) {
+            List<String> keys = new ArrayList<>();
+            if (text == null) {
+                return keys;
+            }
+            String lower = text.toLowerCase(Locale.ROOT);
+            int words = 0;
+            int cjkChars = 0;
+            int prev = -1;
+            int i = 0;
+            while (i < lower.length()) {
+                int cp = lower.codePointAt(i);
+                boolean cjk = Tokenizer.isCjk(cp);
+                boolean wordStart = !cjk && Character.isLetterOrDigit(cp)
+                        && (prev < 0 || !Character.isLetterOrDigit(prev) || Tokenizer.isCjk(prev));
+                if ((cjk && cjkChars++ < MAX_CJK_KEYS_PER_TEXT) || (wordStart && words++ < MAX_KEYS_PER_TEXT)) {
+                    keys.add(lower.substring(i, Math.min(lower.length(), i + MAX_KEY_LENGTH)));
+                }
+                prev = cp;
+                i += Character.charCount(cp);
+            }
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.blog.search;
+
+import com.blog.dto.TagDTO;
+import com.blog.event.TagChangedEvent;
+import com.blog.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 标签自动补全的内存 n-gram 索引
+ *
+ * 功能说明：
+ * - 为每个标签名（小写）的所有长度为 1~3 的子串建立倒排表，查询时取查询串的 n-gram 求交集，
+ *   再校验是否包含整个查询串，前缀和任意位置的子串都能命中
+ * - 以查询串开头的标签排在前面，其次按使用次数降序
+ * - 启动完成后加载全部标签；之后由 TagChangedEvent 在事务提交后增量更新
+ *
+ * 性能说明：
+ * - 原方案：LIKE '%kw%' 无法使用索引，每次输入都扫描整张标签表且不限条数
+ * - 优化后：查询只访问最短的一个倒排表，不访问数据库
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TagSearchIndex {
+
+    /** n-gram 最大长度 */
+    private static final int GRAM = 3;
+
+    private final TagRepository tagRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 标签ID -> 标签 */
+    private final Map<Long, TagEntry> tags = new HashMap<>();
+
+    /** n-gram -> 标签ID */
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    /**
+     * 搜索标签
+     *
+     * @param keyword 输入的关键词（不区分大小写）
+     * @param limit 最多返回条数
+     * @return 前缀匹配在前、按使用次数降序的标签
+     */
+    public List<TagDTO> search(String keyword, int limit) {
+        if (keyword == null || keyword.isBlank() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String query = keyword.trim().toLowerCase(Locale.ROOT);
+        Comparator<TagEntry> order = Comparator
+                .comparing((TagEntry tag) -> tag.lowerName().startsWith(query))
+                .thenComparingInt(TagEntry::useCount)
+                .thenComparing(TagEntry::name, Comparator.reverseOrder());
+
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = shortestPosting(query);
+            // 小顶堆保留排名最前的 limit 个，堆顶为当前第 limit 名
+            PriorityQueue<TagEntry> top = new PriorityQueue<>(limit + 1, order);
+            for (Long id : candidates) {
+                TagEntry tag = tags.get(id);
+                if (tag.lowerName().contains(query)) {
+                    top.offer(tag);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+            List<TagEntry> sorted = new ArrayList<>(top);
+            sorted.sort(order.reversed());
+            return sorted.stream().map(TagEntry::toDTO).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 标签新建或使用次数变化后更新索引
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        put(new TagEntry(event.tagId(), event.name(), event.name().toLowerCase(Locale.ROOT), event.useCount()));
+    }
+
+    /**
+     * 启动完成后加载全部标签
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        tagRepository.findAll().forEach(tag -> put(new TagEntry(tag.getId(), tag.getName(),
+                tag.getName().toLowerCase(Locale.ROOT), tag.getUseCount())));
+        lock.readLock().lock();
+        try {
+            log.info("标签索引加载完成 - 标签数: {}, n-gram数: {}, 耗时: {}ms",
+                    tags.size(), postings.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(TagEntry tag) {
+        lock.writeLock().lock();
+        try {
+            TagEntry previous = tags.put(tag.id(), tag);
+            if (previous != null && previous.lowerName().equals(tag.lowerName())) {
+                // 只有使用次数变化，倒排表不变
+                return;
+            }
+            if (previous != null) {
+                for (String gram : grams(previous.lowerName())) {
+                    Set<Long> ids = postings.get(gram);
+                    ids.remove(previous.id());
+                    if (ids.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            for (String gram : grams(tag.lowerName())) {
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(tag.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询串的各 n-gram 中倒排表最短的一个（包含全部候选标签）
+     */
+    private Collection<Long> shortestPosting(String query) {
+        int gram = Math.min(GRAM, query.length());
+        Collection<Long> shortest = null;
+        for (int i = 0; i + gram <= query.length(); i++) {
+            Set<Long> ids = postings.get(query.substring(i, i + gram));
+            if (ids == null) {
+                return Collections.emptyList();
+            }
+            if (shortest == null || ids.size() < shortest.size()) {
+                shortest = ids;
+            }
+        }
+        return shortest;
+    }
+
+    private static Set<String> grams(String name) {
+        Set<String> grams = new HashSet<>();
+        for (int length = 1; length <= GRAM; length++) {
+            for (int i = 0; i + length <= name.length(); i++) {
+                grams.add(name.substring(i, i + length));
+            }
+        }
+        return grams;
+    }
+
+    private record TagEntry(Long id, String name, String lowerName, int useCount) {
+
+        TagDTO toDTO() {
+            return new TagDTO(id, name, useCount);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.blog.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 搜索分词器（中英文混合）
+ *
+ * 规则：
+ * - 英文、数字：连续的字母数字为一个词，统一转为小写
+ * - 中日韩文字：按二元组（bigram）切分，例如 "数据库" -> "数据"、"据库"；
+ *   建索引时额外输出单字，使单字查询也能命中
+ * - 其他字符（空白、标点、Markdown 符号等）作为分隔符
+ * - 每个词元记录其在原文中的起止偏移，用于生成摘要和高亮
+ */
+public final class Tokenizer {
+
+    /** 单个英文词的最大长度，超长的串（如 Base64、长URL）不建索引 */
+    private static final int MAX_WORD_LENGTH = 40;
+
+    /**
+     * 词元
+     *
+     * @param term 规范化后的词
+     * @param start 原文起始偏移（含）
+     * @param end 原文结束偏移（不含）
+     */
+    public record Token(String term, int start, int end) {
+    }
+
+    private Tokenizer() {
+    }
+
+    /**
+     * 建索引时分词（中日韩文字输出单字和二元组）
+     */
+    public static List<Token> tokenizeForIndex(String text) {
+        return tokenize(text, true);
+    }
+
+    /**
+     * 查询时分词（中日韩文字只在单字成段时输出单字，否则只输出二元组）
+     */
+    public static List<Token> tokenizeQuery(String text) {
+        return tokenize(text, false);
+    }
+
+    private static List<Token> tokenize(String text, boolean withUnigrams) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int cp = text.codePointAt(i);
+            if (isCjk(cp)) {
+                int runStart = i;
+                while (i < length && isCjk(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                emitCjk(text, runStart, i, withUnigrams, tokens);
+            } else if (Character.isLetterOrDigit(cp)) {
+                int runStart = i;
+                while (i < length) {
+                    int next = text.codePointAt(i);
+                    if (!Character.isLetterOrDigit(next) || isCjk(next)) {
+                        break;
+                    }
+                    i += Character.charCount(next);
+                }
+                if (i - runStart <= MAX_WORD_LENGTH) {
+                    tokens.add(new Token(text.substring(runStart, i).toLowerCase(Locale.ROOT), runStart, i));
+                }
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 输出一段连续中日韩文字的单字和二元组
+     */
+    private static void emitCjk(String text, int start, int end, boolean withUnigrams, List<Token> tokens) {
+        int prev = -1;
+        int i = start;
+        while (i < end) {
+            int next = i + Character.charCount(text.codePointAt(i));
+            if (withUnigrams || (prev < 0 && next == end)) {
+                tokens.add(new Token(text.substring(i, next), i, next));
+            }
+            if (prev >= 0) {
+                tokens.add(new Token(text.substring(prev, next), prev, next));
+            }
+            prev = i;
+            i = next;
+        }
+    }
+
+    static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,12 @@
+package com.blog.search;
+
+import java.time.LocalDateTime;
+
+/**
+ * 计算热度所需的文章字段（标签ID另行按块查询）
+ *
+ * 说明：由 PostRepository 通过 JPQL 构造器表达式直接查询生成
+ */
+public record TrendingDocument(Long id, Long categoryId, LocalDateTime createdAt, Integer views,
+                               Integer commentCount, Integer likeCount, Integer favoriteCount) {
+}
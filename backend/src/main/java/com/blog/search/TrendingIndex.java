@@ -0,0 +1,486 @@
+package com.blog.search;
+
+import com.blog.event.EngagementEvent;
+import com.blog.event.PostChangedEvent;
+import com.blog.exception.BadRequestException;
+import com.blog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 文章热度排行（按时间衰减的互动加权）
+ *
+ * 功能说明：
+ * - 浏览、评论、点赞、收藏按配置的权重计分，day / week 窗口按各自的半衰期指数衰减，all 窗口不衰减
+ * - 全站、每个分类、每个标签各维护一个按热度排序的有序集合（红黑树），取前 N 篇直接遍历集合头部
+ * - 启动完成后按块加载已发布文章，以其累计的互动计数作为初始热度（视为发生在文章发布时）
+ * - 之后浏览（PostService.incrementViews）和 EngagementEvent 增量加分，PostChangedEvent 调整文章所属的分类和标签
+ * - 浏览先按文章累计到并发Map中，定期在一次写锁内批量加分（热门文章每个周期只重排一次）；
+ *   评论、点赞、收藏较少，仍立即加分
+ *
+ * 前向衰减（forward decay）：
+ * - 一次互动在时刻 t 的得分记为 权重 × 2^((t - L) / 半衰期)，L 为固定的基准时刻
+ * - 所有文章的得分随时间按同一比例衰减，相对顺序不变，因此已有得分无需随时间重算，
+ *   每次互动只需在有序集合中删除并重新插入该文章，为 O(log n)
+ * - 指数随时间增大，定期将基准时刻移到当前时刻并整体缩放得分，避免 double 溢出
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrendingIndex {
+
+    /** 基准时刻距今超过多少个半衰期时整体缩放（2^32 倍，远小于 double 上限） */
+    private static final double RENORMALIZE_EXPONENT = 32;
+
+    /** 热度降序，相同时按文章ID降序（较新的文章在前） */
+    private static final Comparator<Ranked> BY_SCORE = Comparator.comparingDouble(Ranked::score).reversed()
+            .thenComparing(Comparator.comparingLong(Ranked::postId).reversed());
+
+    /**
+     * 统计窗口
+     */
+    public enum Window {
+        DAY,
+        WEEK,
+        ALL;
+
+        public static Window parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("window 必须为 day、week 或 all");
+            }
+        }
+    }
+
+    private static final int WINDOWS = Window.values().length;
+
+    private final PostRepository postRepository;
+
+    @Value("${blog.trending.weights.view:1}")
+    private double viewWeight;
+
+    @Value("${blog.trending.weights.comment:5}")
+    private double commentWeight;
+
+    @Value("${blog.trending.weights.like:3}")
+    private double likeWeight;
+
+    @Value("${blog.trending.weights.favorite:4}")
+    private double favoriteWeight;
+
+    /** day 窗口的半衰期（小时） */
+    @Value("${blog.trending.day-half-life-hours:12}")
+    private double dayHalfLifeHours;
+
+    /** week 窗口的半衰期（小时） */
+    @Value("${blog.trending.week-half-life-hours:84}")
+    private double weekHalfLifeHours;
+
+    @Value("${blog.search.rebuild-chunk-size:500}")
+    private int chunkSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 文章ID -> 所属分类和标签 */
+    private final Map<Long, Doc> docs = new HashMap<>();
+
+    /** 文章ID -> 各窗口的得分（下标为 Window.ordinal()） */
+    private final Map<Long, double[]> scores = new HashMap<>();
+
+    /** 各窗口前向衰减的基准时刻（毫秒） */
+    private final long[] landmarks = new long[WINDOWS];
+
+    private final Board global = new Board();
+
+    private final Map<Long, Board> byCategory = new HashMap<>();
+
+    private final Map<Long, Board> byTag = new HashMap<>();
+
+    private volatile boolean rebuilding;
+
+    /** 尚未计入得分的浏览次数：文章ID -> 次数 */
+    private final Map<Long, Long> pendingViews = new ConcurrentHashMap<>();
+
+    /** 重建期间被增量更新过的文章，重建时跳过以免旧数据覆盖新数据 */
+    private final Set<Long> updatedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < WINDOWS; i++) {
+            landmarks[i] = now;
+        }
+    }
+
+    /**
+     * 全站热度最高的文章
+     */
+    public List<Long> top(Window window, int limit) {
+        return top(null, null, window, limit);
+    }
+
+    /**
+     * 指定分类中热度最高的文章
+     */
+    public List<Long> topInCategory(Long categoryId, Window window, int limit) {
+        return top(byCategory, categoryId, window, limit);
+    }
+
+    /**
+     * 带有指定标签的文章中热度最高的文章
+     */
+    public List<Long> topWithTag(Long tagId, Window window, int limit) {
+        return top(byTag, tagId, window, limit);
+    }
+
+    /**
+     * @param boards 分类或标签的排行（为 null 时取全站排行）
+     */
+    private List<Long> top(Map<Long, Board> boards, Long id, Window window, int limit) {
+        lock.readLock().lock();
+        try {
+            Board board = boards == null ? global : boards.get(id);
+            if (board == null) {
+                return Collections.emptyList();
+            }
+            NavigableSet<Ranked> ranked = board.sets[window.ordinal()];
+            List<Long> result = new ArrayList<>(Math.min(limit, ranked.size()));
+            Iterator<Ranked> iterator = ranked.iterator();
+            while (iterator.hasNext() && result.size() < limit) {
+                result.add(iterator.next().postId());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 记录一次文章浏览（只累计次数，由 flushViews 定期计入得分；未发布或未加载的文章届时忽略）
+     */
+    public void recordView(Long postId) {
+        pendingViews.merge(postId, 1L, Long::sum);
+    }
+
+    /**
+     * 定期将累计的浏览次数计入得分（视为发生在本次刷写时刻），所有文章共用一次写锁
+     */
+    @Scheduled(fixedDelayString = "${blog.trending.view-flush-interval:1000}")
+    public void flushViews() {
+        if (pendingViews.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            for (Long postId : pendingViews.keySet()) {
+                Long views = pendingViews.remove(postId);
+                if (views != null) {
+                    addScoreLocked(postId, viewWeight * views, now);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 评论、点赞、收藏增减后调整热度
+     *
+     * 说明：取消时按当前时刻的权重扣减，得分最低为 0
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(EngagementEvent event) {
+        double weight = switch (event.type()) {
+            case COMMENT -> commentWeight;
+            case LIKE -> likeWeight;
+            case FAVORITE -> favoriteWeight;
+        };
+        addScore(event.postId(), weight * event.delta());
+    }
+
+    /**
+     * 文章创建、更新（含发布/撤回）、删除后调整所属的排行
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        // 先登记再读库：重建中读到的旧数据不会再覆盖这里写入的新数据
+        if (rebuilding) {
+            updatedDuringRebuild.add(event.postId());
+        }
+        TrendingDocument document = null;
+        List<Long> tagIds = null;
+        if (event.type() != PostChangedEvent.Type.DELETED) {
+            document = postRepository.findTrendingDocumentById(event.postId()).orElse(null);
+            if (document != null) {
+                tagIds = loadTagIds(List.of(document.id())).get(document.id());
+            }
+        }
+        put(event.postId(), document, tagIds, false);
+    }
+
+    /**
+     * 启动完成后按块加载全部已发布文章
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        int count = 0;
+        try {
+            Long afterId = 0L;
+            while (true) {
+                List<TrendingDocument> documents = postRepository.findTrendingDocumentsAfterId(
+                        afterId, PageRequest.of(0, chunkSize));
+                if (documents.isEmpty()) {
+                    break;
+                }
+                Map<Long, List<Long>> tagIds = loadTagIds(documents.stream().map(TrendingDocument::id).toList());
+                for (TrendingDocument document : documents) {
+                    put(document.id(), document, tagIds.get(document.id()), true);
+                }
+                count += documents.size();
+                afterId = documents.get(documents.size() - 1).id();
+            }
+        } finally {
+            rebuilding = false;
+            updatedDuringRebuild.clear();
+        }
+        log.info("热度排行加载完成 - 文章数: {}, 耗时: {}ms", count, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 定期检查衰减窗口的基准时刻，指数过大时移到当前时刻并整体缩放得分
+     */
+    @Scheduled(fixedDelayString = "${blog.trending.renormalize-interval:3600000}")
+    public void renormalize() {
+        long now = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            boolean changed = false;
+            for (Window window : Window.values()) {
+                int w = window.ordinal();
+                double exponent = exponent(window, now);
+                if (exponent < RENORMALIZE_EXPONENT) {
+                    continue;
+                }
+                double factor = Math.pow(2, -exponent);
+                for (double[] score : scores.values()) {
+                    score[w] *= factor;
+                }
+                landmarks[w] = now;
+                changed = true;
+            }
+            if (!changed) {
+                return;
+            }
+            // 同一比例缩放不改变顺序，但集合元素中保存的得分需要替换
+            global.clear();
+            byCategory.values().forEach(Board::clear);
+            byTag.values().forEach(Board::clear);
+            docs.forEach((postId, doc) -> boardsOf(doc).forEach(board -> board.add(postId, scores.get(postId))));
+            log.debug("热度排行基准时刻已更新 - 文章数: {}", docs.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 在当前时刻给文章加分（weight 为负时扣分）
+     */
+    private void addScore(Long postId, double weight) {
+        long now = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            addScoreLocked(postId, weight, now);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 在时刻 now 给文章加分（调用方需持有写锁）
+     */
+    private void addScoreLocked(Long postId, double weight, long now) {
+        Doc doc = docs.get(postId);
+        if (doc == null) {
+            return;
+        }
+        double[] previous = scores.get(postId);
+        double[] updated = previous.clone();
+        for (Window window : Window.values()) {
+            int w = window.ordinal();
+            updated[w] = Math.max(0, updated[w] + weight * decay(window, now));
+        }
+        List<Board> boards = boardsOf(doc);
+        boards.forEach(board -> board.remove(postId, previous));
+        scores.put(postId, updated);
+        boards.forEach(board -> board.add(postId, updated));
+    }
+
+    /**
+     * 添加、调整或移除（document 为 null）一篇文章
+     *
+     * 说明：已在排行中的文章只调整所属的分类和标签，得分保持不变；新加入的文章按累计计数初始化得分
+     *
+     * @param skipIfUpdated 为 true 时（重建），若该文章在重建期间已被增量更新则跳过
+     */
+    private void put(Long postId, TrendingDocument document, List<Long> tagIds, boolean skipIfUpdated) {
+        lock.writeLock().lock();
+        try {
+            if (skipIfUpdated && updatedDuringRebuild.contains(postId)) {
+                return;
+            }
+            Doc previous = docs.remove(postId);
+            double[] score = scores.remove(postId);
+            if (previous != null) {
+                boardsOf(previous).forEach(board -> board.remove(postId, score));
+                if (previous.categoryId() != null) {
+                    byCategory.computeIfPresent(previous.categoryId(), (id, board) -> board.isEmpty() ? null : board);
+                }
+                for (Long tagId : previous.tagIds()) {
+                    byTag.computeIfPresent(tagId, (id, board) -> board.isEmpty() ? null : board);
+                }
+            }
+            if (document == null) {
+                return;
+            }
+            Doc doc = new Doc(document.categoryId(), tagIds == null ? List.of() : List.copyOf(tagIds));
+            double[] current = score != null ? score : initialScore(document);
+            docs.put(postId, doc);
+            scores.put(postId, current);
+            boardsOf(doc).forEach(board -> board.add(postId, current));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按累计的互动计数初始化得分，视为全部发生在文章发布时（尚无每次浏览的时间）
+     */
+    private double[] initialScore(TrendingDocument document) {
+        double weight = viewWeight * valueOf(document.views())
+                + commentWeight * valueOf(document.commentCount())
+                + likeWeight * valueOf(document.likeCount())
+                + favoriteWeight * valueOf(document.favoriteCount());
+        long now = System.currentTimeMillis();
+        long createdAt = document.createdAt() == null ? now
+                : Math.min(now, document.createdAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        double[] score = new double[WINDOWS];
+        for (Window window : Window.values()) {
+            score[window.ordinal()] = Math.max(0, weight * decay(window, createdAt));
+        }
+        return score;
+    }
+
+    /**
+     * 时刻 time 的一次互动相对基准时刻的倍数 2^((time - L) / 半衰期)，all 窗口恒为 1
+     */
+    private double decay(Window window, long time) {
+        return window == Window.ALL ? 1 : Math.pow(2, exponent(window, time));
+    }
+
+    private double exponent(Window window, long time) {
+        double halfLifeHours = switch (window) {
+            case DAY -> dayHalfLifeHours;
+            case WEEK -> weekHalfLifeHours;
+            case ALL -> Double.POSITIVE_INFINITY;
+        };
+        return (time - landmarks[window.ordinal()]) / (halfLifeHours * 3_600_000);
+    }
+
+    private List<Board> boardsOf(Doc doc) {
+        List<Board> boards = new ArrayList<>(doc.tagIds().size() + 2);
+        boards.add(global);
+        if (doc.categoryId() != null) {
+            boards.add(byCategory.computeIfAbsent(doc.categoryId(), id -> new Board()));
+        }
+        for (Long tagId : doc.tagIds()) {
+            boards.add(byTag.computeIfAbsent(tagId, id -> new Board()));
+        }
+        return boards;
+    }
+
+    private Map<Long, List<Long>> loadTagIds(Collection<Long> postIds) {
+        Map<Long, List<Long>> tagIds = new HashMap<>();
+        for (Object[] row : postRepository.findTagIdsByPostIds(postIds)) {
+            tagIds.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+        }
+        return tagIds;
+    }
+
+    private static long valueOf(Integer count) {
+        return count == null ? 0 : count;
+    }
+
+    private record Doc(Long categoryId, List<Long> tagIds) {
+    }
+
+    private record Ranked(long postId, double score) {
+    }
+
+    /**
+     * 一个范围（全站、分类或标签）内各窗口的排行
+     */
+    private static final class Board {
+
+        @SuppressWarnings("unchecked")
+        private final NavigableSet<Ranked>[] sets = new NavigableSet[WINDOWS];
+
+        Board() {
+            for (int i = 0; i < WINDOWS; i++) {
+                sets[i] = new TreeSet<>(BY_SCORE);
+            }
+        }
+
+        void add(long postId, double[] score) {
+            for (int i = 0; i < WINDOWS; i++) {
+                sets[i].add(new Ranked(postId, score[i]));
+            }
+        }
+
+        void remove(long postId, double[] score) {
+            for (int i = 0; i < WINDOWS; i++) {
+                sets[i].remove(new Ranked(postId, score[i]));
+            }
+        }
+
+        void clear() {
+            for (NavigableSet<Ranked> set : sets) {
+                set.clear();
+            }
+        }
+
+        boolean isEmpty() {
+            return sets[0].isEmpty();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.blog.service;
+
+import com.blog.dto.ArchiveCalendarDTO;
+import com.blog.dto.ArchiveDTO;
+import com.blog.event.PostChangedEvent;
+import com.blog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 归档统计的内存缓存（按年月、按天的已发布文章数）
+ *
+ * 功能说明：
+ * - 启动完成后对已发布文章的 (id, created_at) 做一次流式扫描，建立 年月 -> 文章数 的有序表，
+ *   以及每年一个 366 格的按天计数数组（下标为该年的第几天）
+ * - 文章发布、撤回、删除（以及修改创建时间）后由 PostChangedEvent 增量调整对应月份和日期的计数
+ * - 记录每篇已发布文章的创建时间，变更时据此扣减原来所在的月份
+ *
+ * 性能说明：
+ * - 原方案：每次请求 /posts/archives 都对 posts 表执行 GROUP BY YEAR(created_at), MONTH(created_at)；
+ *   日历热力图则需要 GROUP BY DATE(created_at)
+ * - 优化后：直接读取内存中的有序表和按天数组，不访问数据库；每年的日历只占 366 个 int
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArchiveStatsCache {
+
+    private static final String LOAD_SQL = "SELECT id, created_at FROM posts WHERE published = TRUE";
+
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 已发布文章ID -> 创建时间 */
+    private final Map<Long, LocalDateTime> published = new HashMap<>();
+
+    /** 年月（year * 100 + month） -> 已发布文章数 */
+    private final TreeMap<Integer, Integer> monthCounts = new TreeMap<>();
+
+    /** 年份 -> 每天的已发布文章数（下标为 dayOfYear - 1） */
+    private final Map<Integer, int[]> dayCounts = new HashMap<>();
+
+    private volatile boolean rebuilding;
+
+    /** 重建期间被增量更新过的文章，重建时跳过以免旧数据覆盖新数据 */
+    private final Set<Long> updatedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 按年月倒序返回有文章的月份及文章数
+     */
+    public List<ArchiveDTO> getMonthCounts() {
+        lock.readLock().lock();
+        try {
+            List<ArchiveDTO> result = new ArrayList<>(monthCounts.size());
+            monthCounts.descendingMap().forEach((key, count) ->
+                    result.add(new ArchiveDTO(key / 100, key % 100, (long) count)));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 指定年月的已发布文章数
+     */
+    public long getMonthCount(int year, int month) {
+        lock.readLock().lock();
+        try {
+            return monthCounts.getOrDefault(year * 100 + month, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 指定年份每天的已发布文章数
+     */
+    public ArchiveCalendarDTO getCalendar(int year) {
+        int length = Year.of(year).length();
+        lock.readLock().lock();
+        try {
+            int[] days = dayCounts.get(year);
+            int[] counts = days == null ? new int[length] : Arrays.copyOf(days, length);
+            long total = 0;
+            int max = 0;
+            for (int count : counts) {
+                total += count;
+                max = Math.max(max, count);
+            }
+            return new ArchiveCalendarDTO(year, total, max, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 文章创建、更新（含发布/撤回）、删除后调整计数
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        // 先登记再读库：重建中读到的旧数据不会再覆盖这里写入的新数据
+        if (rebuilding) {
+            updatedDuringRebuild.add(event.postId());
+        }
+        LocalDateTime createdAt = event.type() == PostChangedEvent.Type.DELETED
+                ? null
+                : postRepository.findPublishedCreatedAtById(event.postId()).orElse(null);
+        put(event.postId(), createdAt, false);
+    }
+
+    /**
+     * 启动完成后流式扫描一次已发布文章
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        try {
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                put(rs.getLong("id"), rs.getTimestamp("created_at").toLocalDateTime(), true);
+            });
+        } finally {
+            rebuilding = false;
+            updatedDuringRebuild.clear();
+        }
+        lock.readLock().lock();
+        try {
+            log.info("归档统计加载完成 - 文章数: {}, 月份数: {}, 年份数: {}, 耗时: {}ms",
+                    published.size(), monthCounts.size(), dayCounts.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 设置一篇文章的发布状态
+     *
+     * @param createdAt 已发布文章的创建时间，为 null 表示未发布或已删除
+     * @param skipIfUpdated 为 true 时（重建），若该文章在重建期间已被增量更新则跳过
+     */
+    private void put(Long postId, LocalDateTime createdAt, boolean skipIfUpdated) {
+        lock.writeLock().lock();
+        try {
+            if (skipIfUpdated && updatedDuringRebuild.contains(postId)) {
+                return;
+            }
+            LocalDateTime previous = createdAt != null ? published.put(postId, createdAt) : published.remove(postId);
+            if (previous != null) {
+                monthCounts.computeIfPresent(monthKey(previous), (key, count) -> count > 1 ? count - 1 : null);
+                int[] days = dayCounts.get(previous.getYear());
+                if (--days[previous.getDayOfYear() - 1] == 0 && Arrays.stream(days).allMatch(count -> count == 0)) {
+                    dayCounts.remove(previous.getYear());
+                }
+            }
+            if (createdAt != null) {
+                monthCounts.merge(monthKey(createdAt), 1, Integer::sum);
+                dayCounts.computeIfAbsent(createdAt.getYear(), year -> new int[366])[createdAt.getDayOfYear() - 1]++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int monthKey(LocalDateTime dateTime) {
+        return dateTime.getYear() * 100 + dateTime.getMonthValue();
+    }
+}
@@ -1,8 +1,10 @@
 package com.blog.service;
 
+import com.blog.event.CategoryChangedEvent;
 import com.blog.model.Category;
 import com.blog.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,6 +15,7 @@ import java.util.List;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<Category> getAllCategories() {
@@ -30,7 +33,9 @@ public class CategoryService {
         if (categoryRepository.existsByName(category.getName())) {
             throw new RuntimeException("分类名称已存在");
         }
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId()));
+        return savedCategory;
     }
 
     @Transactional
@@ -41,7 +46,9 @@ public class CategoryService {
         existingCategory.setName(category.getName());
         existingCategory.setDescription(category.getDescription());
 
-        return categoryRepository.save(existingCategory);
+        Category savedCategory = categoryRepository.save(existingCategory);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
+        return savedCategory;
     }
 
     @Transactional
@@ -50,5 +57,6 @@ public class CategoryService {
             throw new RuntimeException("分类不存在");
         }
         categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 }
@@ -0,0 +1,169 @@
+package com.blog.service;
+
+import com.blog.event.AuthorChangedEvent;
+import com.blog.event.CategoryChangedEvent;
+import com.blog.event.EngagementEvent;
+import com.blog.event.PostChangedEvent;
+import com.blog.event.TagChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 内容变更水位服务（条件GET的 ETag / Last-Modified 来源）
+ *
+ * 功能说明：
+ * - 为每类集合（文章列表、标签、分类）维护一个变更水位：版本号 + 最后修改时间
+ * - 为每篇文章维护单独的水位，文章内容和评论/点赞/收藏计数变化时递增
+ * - 水位全部在内存中，判断 If-None-Match / If-Modified-Since 时不访问数据库
+ * - ETag 带有进程启动时间，重启后旧的 ETag 自动失效；Last-Modified 初始为启动时间
+ *
+ * 说明：
+ * - 浏览量不参与文章列表和详情的 ETag 计算，命中 304 时客户端显示的浏览量可能略旧；
+ *   侧边栏按浏览量排名，其水位由快照内容变化推进（见 advance）
+ * - 水位在事务提交后、其他缓存失效之后推进，保证新 ETag 对应的一定是新数据
+ */
+@Service
+public class ChangeWatermarkService {
+
+    /**
+     * 集合范围
+     */
+    public enum Scope {
+        /** 文章列表、搜索、归档、RSS */
+        POSTS,
+        /** 标签列表、标签云 */
+        TAGS,
+        /** 分类列表、分类详情 */
+        CATEGORIES,
+        /** 侧边栏最新文章、热门文章（随快照内容变化，包括浏览量） */
+        SIDEBAR
+    }
+
+    /** 进程启动时间（毫秒，Last-Modified 精度为秒，这里向下取整） */
+    private final long bootTime = System.currentTimeMillis() / 1000 * 1000;
+
+    private final String epoch = Long.toString(bootTime, Character.MAX_RADIX);
+
+    private final Map<Scope, AtomicReference<Watermark>> scopes = new EnumMap<>(Scope.class);
+
+    /** 文章ID -> 水位（只记录启动后发生过变化的文章） */
+    private final Map<Long, Watermark> posts = new ConcurrentHashMap<>();
+
+    /** 所有文章详情共享的水位（分类名称、作者昵称变化） */
+    private final AtomicReference<Watermark> shared;
+
+    public ChangeWatermarkService() {
+        for (Scope scope : Scope.values()) {
+            scopes.put(scope, new AtomicReference<>(new Watermark(0, bootTime)));
+        }
+        shared = new AtomicReference<>(new Watermark(0, bootTime));
+    }
+
+    /**
+     * 检查集合是否未修改
+     *
+     * 说明：未修改时响应已被设置为 304，调用方应直接返回 null；
+     * 否则响应头中已写入 ETag 和 Last-Modified
+     *
+     * @param request 当前请求
+     * @param scope 集合范围
+     * @return 客户端缓存仍然有效时返回 true
+     */
+    public boolean checkNotModified(WebRequest request, Scope scope) {
+        Watermark watermark = scopes.get(scope).get();
+        return request.checkNotModified(etag(scope.name().toLowerCase(), watermark.version()),
+                watermark.lastModified());
+    }
+
+    /**
+     * 检查文章详情是否未修改（用法同 {@link #checkNotModified(WebRequest, Scope)}）
+     */
+    public boolean checkPostNotModified(WebRequest request, Long postId) {
+        Watermark post = posts.getOrDefault(postId, new Watermark(0, bootTime));
+        Watermark common = shared.get();
+        return request.checkNotModified(etag("post-" + postId, post.version() + "." + common.version()),
+                Math.max(post.lastModified(), common.lastModified()));
+    }
+
+    /**
+     * 推进集合水位（供不经由变更事件的数据源使用，例如内容发生变化的内存快照）
+     *
+     * 说明：调用方应在新数据可读之后再调用
+     */
+    public void advance(Scope scope) {
+        touch(scope);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        touchPost(event.postId());
+        touch(Scope.POSTS);
+        touch(Scope.TAGS);
+        touch(Scope.CATEGORIES);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(EngagementEvent event) {
+        touchPost(event.postId());
+        touch(Scope.POSTS);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        touch(Scope.TAGS);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        touchShared();
+        touch(Scope.CATEGORIES);
+        touch(Scope.POSTS);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        touchShared();
+        touch(Scope.POSTS);
+    }
+
+    private void touch(Scope scope) {
+        scopes.get(scope).updateAndGet(Watermark::next);
+    }
+
+    private void touchShared() {
+        shared.updateAndGet(Watermark::next);
+    }
+
+    private void touchPost(Long postId) {
+        posts.compute(postId, (id, current) -> (current != null ? current : new Watermark(0, bootTime)).next());
+    }
+
+    private String etag(String name, Object version) {
+        return "W/\"" + name + "-" + epoch + "-" + version + "\"";
+    }
+
+    /**
+     * 水位：版本号 + 最后修改时间（毫秒）
+     */
+    private record Watermark(long version, long lastModified) {
+
+        Watermark next() {
+            // Last-Modified 只精确到秒：每次变化至少推进1秒，只带 If-Modified-Since 的客户端也不会漏掉同一秒内的变化
+            long now = System.currentTimeMillis() / 1000 * 1000;
+            return new Watermark(version + 1, Math.max(lastModified + 1000, now));
+        }
+    }
+}
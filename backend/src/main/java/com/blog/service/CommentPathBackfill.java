@@ -0,0 +1,38 @@
+package com.blog.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 评论物化路径回填任务
+ *
+ * 功能说明：
+ * - 新评论在 CommentService.createComment 中生成路径
+ * - 启动完成后为升级前的历史评论按ID分块回填 path / depth，每块一个事务
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CommentPathBackfill {
+
+    private final CommentService commentService;
+
+    @Value("${blog.comments.path-backfill-chunk-size:500}")
+    private int chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Long afterId = 0L;
+        int chunks = 0;
+        while ((afterId = commentService.backfillPaths(afterId, chunkSize)) != null) {
+            chunks++;
+        }
+        if (chunks > 0) {
+            log.info("评论物化路径回填完成 - 处理块数: {}", chunks);
+        }
+    }
+}
@@ -2,19 +2,33 @@ package com.blog.service;
 
 import com.blog.dto.CommentDTO;
 import com.blog.dto.CreateCommentRequest;
+import com.blog.dto.CursorPageDTO;
+import com.blog.event.EngagementEvent;
+import com.blog.exception.BadRequestException;
+import com.blog.exception.ResourceNotFoundException;
 import com.blog.model.Comment;
+import com.blog.model.CommentPath;
 import com.blog.model.Post;
 import com.blog.model.User;
 import com.blog.repository.CommentRepository;
 import com.blog.repository.PostRepository;
 import com.blog.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,11 +38,88 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /** 回复树的最大展开深度（根评论为第0层） */
+    @Value("${blog.comments.max-depth:10}")
+    private int maxDepth;
+
+    /** 每个评论下最多展开的直接回复数 */
+    @Value("${blog.comments.max-replies-per-node:50}")
+    private int maxRepliesPerNode;
+
+    /** 游标分页单页最大条数 */
+    @Value("${blog.pagination.max-cursor-size:100}")
+    private int maxCursorSize;
+
+    /**
+     * 分页获取文章评论（含回复树）
+     *
+     * 性能优化说明：
+     * - 原方案：每条评论执行一次 findByParentId 并递归，200条评论约200次查询
+     * - 优化后：1(根评论分页) + 1(本页根评论子树内的未删除回复，JOIN用户) 次查询，
+     *   在内存中按父评论ID分组，O(n) 组装回复树
+     * - 回复查询在本文章内按本页根评论的路径范围扫描，只加载到 max-depth + 1 层（最深一层只用于统计隐藏的回复数），
+     *   其他页的评论和更深的回复不会被加载
+     * - 展开深度和每个节点的回复数受配置限制，超出部分以 truncated / hiddenReplyCount 标记
+     */
     @Transactional(readOnly = true)
     public Page<CommentDTO> getCommentsByPostId(Long postId, Pageable pageable) {
-        return commentRepository.findByPostIdAndParentIsNull(postId, pageable)
-                .map(this::convertToDTO);
+        Page<Comment> roots = commentRepository.findByPostIdAndParentIsNull(postId, pageable);
+        if (roots.isEmpty()) {
+            return roots.map(this::convertToDTO);
+        }
+
+        // 父评论ID -> 直接回复（按时间顺序）
+        Map<Long, List<Comment>> childrenByParentId = new HashMap<>();
+        for (Comment reply : findReplies(postId, roots.getContent())) {
+            childrenByParentId.computeIfAbsent(reply.getParent().getId(), id -> new ArrayList<>()).add(reply);
+        }
+
+        return roots.map(root -> buildThread(root, childrenByParentId, 0));
+    }
+
+    /**
+     * 加载一页根评论的回复（物化路径尚未回填时退回逐层加载）
+     */
+    private List<Comment> findReplies(Long postId, List<Comment> roots) {
+        List<String> rootPaths = new ArrayList<>(roots.size());
+        for (Comment root : roots) {
+            if (root.getPath() == null) {
+                return findRepliesByLevel(roots);
+            }
+            rootPaths.add(root.getPath());
+        }
+        Collections.sort(rootPaths);
+        return commentRepository.findRepliesUnderRoots(postId, rootPaths.get(0),
+                CommentPath.upperBound(rootPaths.get(rootPaths.size() - 1)),
+                CommentPath.SEGMENT_WIDTH + 1, rootPaths, maxDepth + 1);
+    }
+
+    /**
+     * 按父评论ID逐层加载回复（历史评论路径回填完成前的退化路径）
+     *
+     * 说明：与路径查询一样只加载到 max-depth + 1 层；每个节点只继续展开前 max-replies-per-node 条回复，
+     * 每层最多取 父评论数 × (max-replies-per-node + 1) 条，加载量与返回的回复树同一量级
+     * （单个父评论回复极多时，同层其他评论的隐藏回复数可能偏小）
+     */
+    private List<Comment> findRepliesByLevel(List<Comment> roots) {
+        List<Comment> replies = new ArrayList<>();
+        List<Long> parentIds = roots.stream().map(Comment::getId).toList();
+        for (int depth = 1; depth <= maxDepth + 1 && !parentIds.isEmpty(); depth++) {
+            int limit = (int) Math.min(Integer.MAX_VALUE, (long) parentIds.size() * (maxRepliesPerNode + 1));
+            List<Comment> level = commentRepository.findRepliesByParentIds(parentIds, PageRequest.of(0, limit));
+            replies.addAll(level);
+            Map<Long, Integer> expanded = new HashMap<>();
+            List<Long> next = new ArrayList<>();
+            for (Comment reply : level) {
+                if (expanded.merge(reply.getParent().getId(), 1, Integer::sum) <= maxRepliesPerNode) {
+                    next.add(reply.getId());
+                }
+            }
+            parentIds = next;
+        }
+        return replies;
     }
 
     @Transactional
@@ -47,10 +138,16 @@ public class CommentService {
         if (request.getParentId() != null) {
             Comment parent = commentRepository.findById(request.getParentId())
                     .orElseThrow(() -> new RuntimeException("父评论不存在"));
+            if (!CommentPath.canAppendChild(resolvePath(parent))) {
+                throw new BadRequestException("回复层级过深");
+            }
             comment.setParent(parent);
         }
 
         Comment savedComment = commentRepository.save(comment);
+        resolvePath(savedComment);
+        postRepository.incrementCommentCount(post.getId(), 1);
+        eventPublisher.publishEvent(new EngagementEvent(post.getId(), user.getId(), EngagementEvent.Type.COMMENT, 1));
         return convertToDTO(savedComment);
     }
 
@@ -67,8 +164,14 @@ public class CommentService {
             throw new RuntimeException("无权删除此评论");
         }
 
+        if (comment.getDeleted()) {
+            return;
+        }
         comment.setDeleted(true);
         commentRepository.save(comment);
+        postRepository.incrementCommentCount(comment.getPost().getId(), -1);
+        eventPublisher.publishEvent(new EngagementEvent(comment.getPost().getId(), comment.getUser().getId(),
+                EngagementEvent.Type.COMMENT, -1));
     }
 
     @Transactional(readOnly = true)
@@ -76,6 +179,161 @@ public class CommentService {
         return commentRepository.countByPostIdAndDeletedFalse(postId);
     }
 
+    /**
+     * 游标分页展开评论下的全部回复（"加载更多回复"）
+     *
+     * 说明：
+     * - 按物化路径排序返回整棵子树，即深度优先顺序，每条评论带 parentId 和 depth，
+     *   客户端按顺序即可还原层级，不受嵌套深度影响
+     * - 与评论列表的回复树一致，已删除评论的整棵子树不返回；每页为 idx_path 上的范围扫描，
+     *   只在跨过已删除的子树时多一次扫描，游标为上一页最后一条评论的路径
+     *
+     * @param commentId 被展开的评论ID
+     * @param cursor 上一页返回的 nextCursor，为空表示第一页
+     * @param size 每页条数
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CommentDTO> getReplies(Long commentId, String cursor, int size) {
+        String path = getPath(commentId);
+        String afterPath = decodeCursor(cursor, path);
+        int limit = Math.max(1, Math.min(size, maxCursorSize));
+
+        List<Comment> replies = new ArrayList<>();
+        for (PathRange range : visibleRanges(commentId, path)) {
+            if (replies.size() > limit) {
+                break;
+            }
+            if (range.before().compareTo(afterPath) <= 0) {
+                continue;
+            }
+            String after = range.after().compareTo(afterPath) > 0 ? range.after() : afterPath;
+            replies.addAll(commentRepository.findSubtreeAfter(after, range.before(),
+                    PageRequest.of(0, limit + 1 - replies.size())).getContent());
+        }
+        boolean hasNext = replies.size() > limit;
+        if (hasNext) {
+            replies = replies.subList(0, limit);
+        }
+        String nextCursor = hasNext ? encodeCursor(replies.get(replies.size() - 1).getPath()) : null;
+        List<CommentDTO> content = replies.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return new CursorPageDTO<>(content, content.size(), hasNext, nextCursor);
+    }
+
+    /**
+     * 统计评论下所有层级的可见回复数（不含已删除评论及其子树，每个可见区间一次 idx_path 范围计数）
+     */
+    @Transactional(readOnly = true)
+    public long getDescendantCount(Long commentId) {
+        String path = getPath(commentId);
+        long count = 0;
+        for (PathRange range : visibleRanges(commentId, path)) {
+            count += commentRepository.countSubtree(range.after(), range.before());
+        }
+        return count;
+    }
+
+    /**
+     * 为尚未生成物化路径的历史评论回填路径（每次处理一块）
+     *
+     * @param afterId 从该ID之后开始
+     * @param chunkSize 每块条数
+     * @return 本块最后处理的评论ID，没有待处理评论时返回 null
+     */
+    @Transactional
+    public Long backfillPaths(Long afterId, int chunkSize) {
+        List<Comment> comments = commentRepository.findWithoutPathAfterId(afterId, PageRequest.of(0, chunkSize));
+        if (comments.isEmpty()) {
+            return null;
+        }
+        comments.forEach(this::resolvePath);
+        return comments.get(comments.size() - 1).getId();
+    }
+
+    /**
+     * 获取评论的物化路径（不存在或已删除时抛出异常）
+     */
+    private String getPath(Long commentId) {
+        Comment comment = commentRepository.findById(commentId)
+                .filter(c -> !c.getDeleted())
+                .orElseThrow(() -> new ResourceNotFoundException("评论", commentId));
+        if (comment.getPath() == null) {
+            throw new BadRequestException("评论路径尚未生成，请稍后重试");
+        }
+        return comment.getPath();
+    }
+
+    /**
+     * 确保评论已生成物化路径并返回
+     *
+     * 说明：新评论保存后在同一事务内回填；父评论路径缺失（历史数据）时沿父链补齐
+     */
+    private String resolvePath(Comment comment) {
+        if (comment.getPath() == null) {
+            String parentPath = comment.getParent() != null ? resolvePath(comment.getParent()) : null;
+            String path = CommentPath.child(parentPath, comment.getId());
+            comment.setPath(path);
+            comment.setDepth(CommentPath.depth(path));
+        }
+        return comment.getPath();
+    }
+
+    /**
+     * 计算子树中可见回复所在的路径区间（按路径顺序，均不含两端）
+     *
+     * 说明：与评论列表的回复树规则一致——已删除评论及其所有子孙都不可见，祖先已删除的评论本身也不可见；
+     * 已删除评论通常很少，一次查询取出后把子树范围切分为跳过这些子树的若干区间
+     *
+     * @throws ResourceNotFoundException 评论的某个祖先已删除
+     */
+    private List<PathRange> visibleRanges(Long commentId, String path) {
+        List<String> ancestors = CommentPath.ancestors(path);
+        String upperBound = CommentPath.upperBound(path);
+        List<PathRange> ranges = new ArrayList<>();
+        String after = path;
+        String skipped = null;
+        for (String deleted : commentRepository.findDeletedPaths(ancestors.isEmpty() ? List.of(path) : ancestors,
+                path, upperBound)) {
+            if (ancestors.contains(deleted)) {
+                throw new ResourceNotFoundException("评论", commentId);
+            }
+            // 已跳过的子树内部的已删除评论无需再切分
+            if (skipped != null && deleted.startsWith(skipped)) {
+                continue;
+            }
+            ranges.add(new PathRange(after, deleted));
+            after = CommentPath.upperBound(deleted);
+            skipped = deleted;
+        }
+        ranges.add(new PathRange(after, upperBound));
+        return ranges;
+    }
+
+    private String encodeCursor(String path) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(path.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析回复游标，为空时返回节点自身路径（即从第一条回复开始）
+     *
+     * @throws BadRequestException 游标格式不正确或不属于该评论的子树
+     */
+    private String decodeCursor(String cursor, String path) {
+        if (cursor == null || cursor.isBlank()) {
+            return path;
+        }
+        try {
+            String afterPath = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (CommentPath.isDescendant(afterPath, path)) {
+                return afterPath;
+            }
+        } catch (IllegalArgumentException e) {
+            // 按无效游标处理
+        }
+        throw new BadRequestException("无效的分页游标");
+    }
+
     private CommentDTO convertToDTO(Comment comment) {
         CommentDTO dto = new CommentDTO();
         dto.setId(comment.getId());
@@ -90,13 +348,44 @@ public class CommentService {
         if (comment.getParent() != null) {
             dto.setParentId(comment.getParent().getId());
         }
+        dto.setDepth(comment.getDepth());
 
-        // 加载回复
-        List<Comment> replies = commentRepository.findByParentId(comment.getId());
-        dto.setReplies(replies.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList()));
+        dto.setReplies(new ArrayList<>());
+        dto.setTruncated(false);
+        dto.setHiddenReplyCount(0);
+
+        return dto;
+    }
 
+    /**
+     * 物化路径区间 (after, before)
+     */
+    private record PathRange(String after, String before) {
+    }
+
+    /**
+     * 从内存分组中组装评论的回复树
+     *
+     * @param comment 当前评论
+     * @param childrenByParentId 父评论ID -> 直接回复
+     * @param depth 当前深度（根评论为0）
+     * @return 含回复树的评论DTO
+     */
+    private CommentDTO buildThread(Comment comment, Map<Long, List<Comment>> childrenByParentId, int depth) {
+        CommentDTO dto = convertToDTO(comment);
+        List<Comment> children = childrenByParentId.getOrDefault(comment.getId(), Collections.emptyList());
+        if (children.isEmpty()) {
+            return dto;
+        }
+
+        int limit = depth < maxDepth ? Math.min(children.size(), maxRepliesPerNode) : 0;
+        for (int i = 0; i < limit; i++) {
+            dto.getReplies().add(buildThread(children.get(i), childrenByParentId, depth + 1));
+        }
+        if (limit < children.size()) {
+            dto.setTruncated(true);
+            dto.setHiddenReplyCount(children.size() - limit);
+        }
         return dto;
     }
 }
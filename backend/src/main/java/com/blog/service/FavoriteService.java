@@ -1,6 +1,7 @@
 package com.blog.service;
 
-import com.blog.dto.PostDTO;
+import com.blog.dto.PostSummaryDTO;
+import com.blog.event.EngagementEvent;
 import com.blog.exception.BadRequestException;
 import com.blog.exception.ResourceNotFoundException;
 import com.blog.model.Favorite;
@@ -10,6 +11,7 @@ import com.blog.repository.FavoriteRepository;
 import com.blog.repository.PostRepository;
 import com.blog.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -32,6 +34,7 @@ public class FavoriteService {
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final PostService postService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 收藏文章
@@ -53,6 +56,8 @@ public class FavoriteService {
         favorite.setUser(user);
         favorite.setPost(post);
         favoriteRepository.save(favorite);
+        postRepository.incrementFavoriteCount(postId, 1);
+        eventPublisher.publishEvent(new EngagementEvent(postId, user.getId(), EngagementEvent.Type.FAVORITE, 1));
     }
 
     /**
@@ -67,23 +72,22 @@ public class FavoriteService {
             throw new BadRequestException("尚未收藏该文章");
         }
 
-        favoriteRepository.deleteByUserIdAndPostId(user.getId(), postId);
+        if (favoriteRepository.deleteByUserIdAndPostId(user.getId(), postId) > 0) {
+            postRepository.incrementFavoriteCount(postId, -1);
+            eventPublisher.publishEvent(new EngagementEvent(postId, user.getId(), EngagementEvent.Type.FAVORITE, -1));
+        }
     }
 
     /**
      * 获取用户的收藏列表
      */
     @Transactional(readOnly = true)
-    public Page<PostDTO> getUserFavorites(String username, Pageable pageable) {
+    public Page<PostSummaryDTO> getUserFavorites(String username, Pageable pageable) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("用户不存在"));
 
-        Page<Favorite> favorites = favoriteRepository.findByUserId(user.getId(), pageable);
-
-        return favorites.map(favorite -> {
-            Post post = favorite.getPost();
-            return postService.convertToDTO(post);
-        });
+        // 直接查询列表卡片投影，不加载文章实体和正文
+        return postService.applyPendingCounts(favoriteRepository.findPostSummariesByUserId(user.getId(), pageable));
     }
 
     /**
@@ -98,11 +102,11 @@ public class FavoriteService {
     }
 
     /**
-     * 获取文章的收藏数
+     * 获取文章的收藏数（读取 posts.favorite_count 冗余列，不再 COUNT 收藏表）
      */
     @Transactional(readOnly = true)
     public Long getFavoriteCount(Long postId) {
-        return favoriteRepository.countByPostId(postId);
+        return postRepository.findFavoriteCountById(postId).orElse(0).longValue();
     }
 
     /**
@@ -1,8 +1,7 @@
 package com.blog.service;
 
-import com.blog.model.Like;
-import com.blog.model.Post;
-import com.blog.model.User;
+import com.blog.exception.BadRequestException;
+import com.blog.exception.ResourceNotFoundException;
 import com.blog.repository.LikeRepository;
 import com.blog.repository.PostRepository;
 import com.blog.repository.UserRepository;
@@ -10,6 +9,14 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
+/**
+ * 点赞服务
+ *
+ * 说明：点赞/取消点赞只记录到 LikeWriteBuffer，由其批量写库（不在此处开启事务，同步模式下由缓冲自行开启写事务）；
+ * 点赞数和点赞状态叠加缓冲中尚未写库的部分
+ */
 @Service
 @RequiredArgsConstructor
 public class LikeService {
@@ -17,43 +24,53 @@ public class LikeService {
     private final LikeRepository likeRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final LikeWriteBuffer likeWriteBuffer;
 
-    @Transactional
     public void likePost(Long postId, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
-
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("文章不存在"));
-
-        if (likeRepository.existsByUserIdAndPostId(user.getId(), postId)) {
-            throw new RuntimeException("已经点赞过该文章");
+        if (!record(postId, findUserId(username), true)) {
+            throw new BadRequestException("已经点赞过该文章");
         }
-
-        Like like = new Like();
-        like.setUser(user);
-        like.setPost(post);
-        likeRepository.save(like);
     }
 
-    @Transactional
     public void unlikePost(Long postId, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
-
-        likeRepository.deleteByUserIdAndPostId(user.getId(), postId);
+        record(postId, findUserId(username), false);
     }
 
     @Transactional(readOnly = true)
     public Long getLikeCount(Long postId) {
-        return likeRepository.countByPostId(postId);
+        long persisted = postRepository.findLikeCountById(postId).orElse(0);
+        return Math.max(0, persisted + likeWriteBuffer.getPendingCount(postId));
     }
 
     @Transactional(readOnly = true)
     public Boolean isLiked(Long postId, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("用户不存在"));
+        Long userId = findUserId(username);
+        Boolean pending = likeWriteBuffer.getPendingState(userId, postId);
+        return pending != null ? pending : likeRepository.existsByUserIdAndPostId(userId, postId);
+    }
+
+    /**
+     * 记录点赞意图；缓冲中已有该用户对该文章的意图时无需查询数据库
+     *
+     * @return 状态是否发生变化
+     */
+    private boolean record(Long postId, Long userId, boolean liked) {
+        Boolean changed = likeWriteBuffer.record(userId, postId, liked, null);
+        if (changed != null) {
+            return changed;
+        }
+        List<Object[]> rows = likeRepository.findPostWithLike(postId, userId);
+        if (rows.isEmpty()) {
+            if (liked) {
+                throw new ResourceNotFoundException("文章", postId);
+            }
+            return false;
+        }
+        return likeWriteBuffer.record(userId, postId, liked, rows.get(0)[1] != null);
+    }
 
-        return likeRepository.existsByUserIdAndPostId(user.getId(), postId);
+    private Long findUserId(String username) {
+        return userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("用户不存在"));
     }
 }
@@ -0,0 +1,274 @@
+package com.blog.service;
+
+import com.blog.event.EngagementEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 点赞写回缓冲
+ *
+ * 功能说明：
+ * - 点赞/取消点赞先记录为内存中的意图，按 (用户, 文章) 分段保存；同一用户对同一文章的反复切换合并为最终状态，
+ *   切回数据库中的原状态时直接抵消，不产生任何写库
+ * - 同时维护每篇文章待写库的点赞数增量，读取点赞数和点赞状态时叠加，保证用户立即看到自己的操作
+ * - 定期在一个事务中批量写库：点赞为 INSERT ... SELECT ... WHERE NOT EXISTS（已存在则忽略），取消为 DELETE，
+ *   再按实际影响的行数批量调整 posts.like_count，提交后逐条发布 EngagementEvent
+ * - 写库失败的意图会放回缓冲，等待下个周期重试；应用正常关闭时会执行最后一次刷写
+ *
+ * 性能优化说明：
+ * - 原方案：每次点赞依次执行 查用户、查文章、查是否已点赞、INSERT、UPDATE 计数，且查后再插存在并发竞争
+ * - 优化后：请求只做一次用户ID查询和（缓冲中没有该意图时）一次点赞状态查询；热门文章的大量点赞在每个刷写周期
+ *   合并为批量语句，posts 行每篇文章每批只更新一次
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LikeWriteBuffer {
+
+    /** 分段数量（2的幂，按 (用户, 文章) 取模选择分段，热门文章的点赞分散到各分段） */
+    private static final int STRIPES = 16;
+
+    private static final String INSERT_SQL = "INSERT INTO likes (user_id, post_id, created_at) SELECT ?, ?, ? FROM DUAL " +
+            "WHERE EXISTS (SELECT 1 FROM posts WHERE id = ?) " +
+            "AND NOT EXISTS (SELECT 1 FROM likes WHERE user_id = ? AND post_id = ?)";
+
+    private static final String DELETE_SQL = "DELETE FROM likes WHERE user_id = ? AND post_id = ?";
+
+    private static final String UPDATE_COUNT_SQL = "UPDATE posts SET like_count = like_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${blog.likes.write-behind:true}")
+    private boolean writeBehind;
+
+    @Value("${blog.likes.batch-size:500}")
+    private int batchSize;
+
+    /** 待写库的意图：(用户, 文章) -> 意图 */
+    @SuppressWarnings("unchecked")
+    private final Map<Key, Intent>[] stripes = new ConcurrentHashMap[STRIPES];
+
+    /** 正在写库中的意图（写库完成前仍需计入读取结果） */
+    private final Map<Key, Intent> inFlight = new ConcurrentHashMap<>();
+
+    /** 每篇文章待写库的点赞数增量（缓冲中 + 写库中） */
+    private final Map<Long, Integer> pendingCounts = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+
+    {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * 获取尚未写库的点赞状态
+     *
+     * @return 缓冲或写库中的最终状态；没有待写库的意图时返回 null，由调用方查询数据库
+     */
+    public Boolean getPendingState(Long userId, Long postId) {
+        Key key = new Key(userId, postId);
+        Intent intent = stripeOf(key).get(key);
+        if (intent == null) {
+            intent = inFlight.get(key);
+        }
+        return intent == null ? null : intent.liked();
+    }
+
+    /**
+     * 获取文章尚未写库的点赞数增量
+     */
+    public int getPendingCount(Long postId) {
+        return pendingCounts.getOrDefault(postId, 0);
+    }
+
+    /**
+     * 记录一次点赞或取消点赞
+     *
+     * @param persisted 数据库中的当前状态；传 null 时若缓冲和写库中都没有该意图，则不记录并返回 null，
+     *                  由调用方查询数据库后再次调用
+     * @return 状态是否发生变化（重复点赞或重复取消返回 false）；需要数据库状态时返回 null
+     */
+    public Boolean record(Long userId, Long postId, boolean liked, Boolean persisted) {
+        Key key = new Key(userId, postId);
+        Boolean[] changed = {null};
+        stripeOf(key).compute(key, (k, current) -> {
+            boolean base;
+            boolean state;
+            if (current != null) {
+                base = current.persisted();
+                state = current.liked();
+            } else {
+                // 写库中的意图提交后即为数据库状态
+                Intent writing = inFlight.get(key);
+                if (writing == null && persisted == null) {
+                    return null;
+                }
+                base = writing != null ? writing.liked() : persisted;
+                state = base;
+            }
+            changed[0] = state != liked;
+            if (!changed[0]) {
+                return current;
+            }
+            pendingCounts.merge(postId, liked ? 1 : -1, (a, b) -> a + b == 0 ? null : a + b);
+            // 切回原状态时抵消，不再写库
+            return liked == base ? null : new Intent(liked, base);
+        });
+        if (Boolean.TRUE.equals(changed[0]) && !writeBehind) {
+            flush();
+        }
+        return changed[0];
+    }
+
+    /**
+     * 定期将缓冲的意图批量写入数据库
+     */
+    @Scheduled(fixedDelayString = "${blog.likes.flush-interval:1000}")
+    public void flush() {
+        synchronized (flushLock) {
+            List<Map.Entry<Key, Intent>> entries = new ArrayList<>(drain().entrySet());
+            if (entries.isEmpty()) {
+                return;
+            }
+            for (int from = 0; from < entries.size(); from += batchSize) {
+                List<Map.Entry<Key, Intent>> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+                List<EngagementEvent> applied;
+                try {
+                    applied = transactionTemplate.execute(status -> write(batch));
+                } catch (DataAccessException | TransactionException e) {
+                    log.warn("点赞批量写库失败，将在下个周期重试 - 条数: {}", batch.size(), e);
+                    batch.forEach(this::restore);
+                    continue;
+                }
+                // 先通知各缓存再移除写库中的意图，读取方不会在两者之间看到旧状态
+                applied.forEach(eventPublisher::publishEvent);
+                for (Map.Entry<Key, Intent> entry : batch) {
+                    Key key = entry.getKey();
+                    pendingCounts.merge(key.postId(), entry.getValue().liked() ? -1 : 1,
+                            (a, b) -> a + b == 0 ? null : a + b);
+                    inFlight.remove(key, entry.getValue());
+                }
+            }
+            log.debug("点赞写库完成 - 条数: {}", entries.size());
+        }
+    }
+
+    /**
+     * 应用关闭前刷写剩余的意图
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * 在当前事务中写入一批意图，返回实际生效的变更（已点赞再点赞、文章已删除等不生效）
+     */
+    private List<EngagementEvent> write(List<Map.Entry<Key, Intent>> batch) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Key> likes = new ArrayList<>();
+        List<Key> unlikes = new ArrayList<>();
+        for (Map.Entry<Key, Intent> entry : batch) {
+            (entry.getValue().liked() ? likes : unlikes).add(entry.getKey());
+        }
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_SQL, likes.stream()
+                .map(key -> new Object[]{key.userId(), key.postId(), now, key.postId(), key.userId(), key.postId()})
+                .toList());
+        int[] deleted = jdbcTemplate.batchUpdate(DELETE_SQL, unlikes.stream()
+                .map(key -> new Object[]{key.userId(), key.postId()})
+                .toList());
+
+        List<EngagementEvent> applied = new ArrayList<>();
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (int i = 0; i < likes.size(); i++) {
+            if (inserted[i] > 0) {
+                applied.add(new EngagementEvent(likes.get(i).postId(), likes.get(i).userId(),
+                        EngagementEvent.Type.LIKE, 1));
+                deltas.merge(likes.get(i).postId(), 1, Integer::sum);
+            }
+        }
+        for (int i = 0; i < unlikes.size(); i++) {
+            if (deleted[i] > 0) {
+                applied.add(new EngagementEvent(unlikes.get(i).postId(), unlikes.get(i).userId(),
+                        EngagementEvent.Type.LIKE, -1));
+                deltas.merge(unlikes.get(i).postId(), -1, Integer::sum);
+            }
+        }
+        List<Object[]> counts = new ArrayList<>();
+        deltas.forEach((postId, delta) -> {
+            if (delta != 0) {
+                counts.add(new Object[]{delta, postId});
+            }
+        });
+        jdbcTemplate.batchUpdate(UPDATE_COUNT_SQL, counts);
+        return applied;
+    }
+
+    /**
+     * 取出所有分段中的意图，并登记为写库中
+     */
+    private Map<Key, Intent> drain() {
+        Map<Key, Intent> drained = new HashMap<>();
+        for (Map<Key, Intent> stripe : stripes) {
+            for (Key key : stripe.keySet()) {
+                // 先登记写库中再移出缓冲，读取方始终能看到该意图
+                stripe.computeIfPresent(key, (k, intent) -> {
+                    inFlight.put(k, intent);
+                    drained.put(k, intent);
+                    return null;
+                });
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * 写库失败后放回缓冲；期间又有新意图时，新意图改为相对本次意图之前的数据库状态
+     */
+    private void restore(Map.Entry<Key, Intent> entry) {
+        Key key = entry.getKey();
+        Intent failed = entry.getValue();
+        stripeOf(key).compute(key, (k, current) -> {
+            inFlight.remove(k, failed);
+            if (current == null) {
+                return failed;
+            }
+            return current.liked() == failed.persisted() ? null : new Intent(current.liked(), failed.persisted());
+        });
+    }
+
+    private Map<Key, Intent> stripeOf(Key key) {
+        return stripes[key.hashCode() & (STRIPES - 1)];
+    }
+
+    private record Key(long userId, long postId) {
+    }
+
+    /**
+     * @param liked 最终状态
+     * @param persisted 记录该意图时的数据库状态
+     */
+    private record Intent(boolean liked, boolean persisted) {
+    }
+}
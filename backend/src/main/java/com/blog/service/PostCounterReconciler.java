@@ -0,0 +1,121 @@
+package com.blog.service;
+
+import com.blog.repository.CommentRepository;
+import com.blog.repository.FavoriteRepository;
+import com.blog.repository.LikeRepository;
+import com.blog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 文章冗余计数对账任务
+ *
+ * 功能说明：
+ * - Post上的 commentCount / likeCount / favoriteCount 由各服务原子增减维护
+ * - 本任务定期按ID分块，从 comments / likes / favorites 表重新统计并修复偏差
+ * - 每块只执行 1(读计数) + 3(GROUP BY 统计) 次查询，仅对有偏差的文章执行 UPDATE
+ * - 修复时校验旧值，期间发生并发增减的文章跳过，留待下一轮对账
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostCounterReconciler {
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final LikeRepository likeRepository;
+    private final FavoriteRepository favoriteRepository;
+
+    @Value("${blog.counters.reconcile-chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * 定期对账（启动后延迟执行一次，之后按间隔执行）
+     */
+    @Scheduled(initialDelayString = "${blog.counters.reconcile-initial-delay:60000}",
+               fixedDelayString = "${blog.counters.reconcile-interval:3600000}")
+    public void reconcile() {
+        long afterId = 0L;
+        int checked = 0;
+        int repaired = 0;
+
+        while (true) {
+            List<Object[]> rows = postRepository.findCountersAfterId(afterId, PageRequest.of(0, chunkSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            repaired += reconcileChunk(rows);
+            checked += rows.size();
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+
+        if (repaired > 0) {
+            log.info("文章计数对账完成 - 检查: {}, 修复: {}", checked, repaired);
+        } else {
+            log.debug("文章计数对账完成 - 检查: {}, 无偏差", checked);
+        }
+    }
+
+    /**
+     * 对账一个分块
+     *
+     * @param rows [文章ID, 评论数, 点赞数, 收藏数]
+     * @return 修复的文章数
+     */
+    private int reconcileChunk(List<Object[]> rows) {
+        List<Long> postIds = rows.stream()
+                .map(row -> (Long) row[0])
+                .collect(Collectors.toList());
+
+        Map<Long, Long> commentCounts = toCountMap(commentRepository.countByPostIdsGroupByPostId(postIds));
+        Map<Long, Long> likeCounts = toCountMap(likeRepository.countByPostIdsGroupByPostId(postIds));
+        Map<Long, Long> favoriteCounts = toCountMap(favoriteRepository.countByPostIdsGroupByPostId(postIds));
+
+        int repaired = 0;
+        for (Object[] row : rows) {
+            Long postId = (Long) row[0];
+            int storedComments = (Integer) row[1];
+            int storedLikes = (Integer) row[2];
+            int storedFavorites = (Integer) row[3];
+
+            int actualComments = commentCounts.getOrDefault(postId, 0L).intValue();
+            int actualLikes = likeCounts.getOrDefault(postId, 0L).intValue();
+            int actualFavorites = favoriteCounts.getOrDefault(postId, 0L).intValue();
+
+            if (storedComments == actualComments && storedLikes == actualLikes
+                    && storedFavorites == actualFavorites) {
+                continue;
+            }
+
+            int updated = postRepository.repairCounters(postId, actualComments, actualLikes, actualFavorites,
+                    storedComments, storedLikes, storedFavorites);
+            if (updated > 0) {
+                log.warn("修复文章计数偏差 - 文章ID: {}, 评论: {} -> {}, 点赞: {} -> {}, 收藏: {} -> {}",
+                        postId, storedComments, actualComments, storedLikes, actualLikes,
+                        storedFavorites, actualFavorites);
+                repaired++;
+            }
+        }
+        return repaired;
+    }
+
+    /**
+     * 将 [文章ID, 数量] 结果行转换为Map
+     */
+    private Map<Long, Long> toCountMap(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,170 @@
+package com.blog.service;
+
+import com.blog.dto.PostDTO;
+import com.blog.event.AuthorChangedEvent;
+import com.blog.event.CategoryChangedEvent;
+import com.blog.event.EngagementEvent;
+import com.blog.event.PostChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * 文章详情缓存
+ *
+ * 功能说明：
+ * - 缓存组装好的文章详情DTO（含作者、分类、标签和冗余计数），命中时不访问数据库
+ * - 按DTO估算字节数限制总容量（maximumWeight），并设置写入后过期时间
+ * - 文章更新、删除、发布状态变化以及评论/点赞/收藏增减时，在事务提交后失效对应条目，
+ *   下次读取重新加载最新数据；分类或作者昵称变化时清空全部条目
+ * - 失效监听先于 ChangeWatermarkService 执行，保证新的 ETag 不会对应到缓存中的旧数据
+ * - 浏览量不随缓存过期：加载时记录基准值，读取时叠加 ViewCountService 的累计浏览量
+ * - 命中率等指标通过 Actuator 暴露（/actuator/metrics/cache.gets?tag=cache:postDetail）
+ * - blog.cache.post-detail.enabled=false 时直接穿透，便于对比测试
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostDetailCache {
+
+    private static final String CACHE_NAME = "postDetail";
+
+    /** 每个条目的固定开销估算（对象头、字段、数值和时间字段等） */
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    private final ViewCountService viewCountService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${blog.cache.post-detail.enabled:true}")
+    private boolean enabled;
+
+    @Value("${blog.cache.post-detail.max-weight-bytes:67108864}")
+    private long maxWeightBytes;
+
+    @Value("${blog.cache.post-detail.ttl:600000}")
+    private long ttlMillis;
+
+    private Cache<Long, CachedPost> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long id, CachedPost entry) -> entry.weight())
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info("文章详情缓存 - 启用: {}, 容量上限: {} 字节, 过期时间: {} 毫秒", enabled, maxWeightBytes, ttlMillis);
+    }
+
+    /**
+     * 获取文章详情，未命中时通过 loader 加载并放入缓存
+     *
+     * @param postId 文章ID
+     * @param loader 加载函数（文章不存在时应抛出异常，异常不会被缓存）
+     * @return 文章详情（副本，调用方可以修改）
+     */
+    public PostDTO get(Long postId, Function<Long, PostDTO> loader) {
+        if (!enabled) {
+            return loader.apply(postId);
+        }
+        CachedPost entry = cache.get(postId, id -> {
+            PostDTO post = loader.apply(id);
+            return new CachedPost(post, post.getViews() - viewCountService.getRecordedViews(id));
+        });
+        return entry.toDTO(viewCountService.getRecordedViews(postId));
+    }
+
+    /**
+     * 判断文章详情是否在缓存中（不加载、不更新访问统计）
+     */
+    public boolean contains(Long postId) {
+        return enabled && cache.asMap().containsKey(postId);
+    }
+
+    /**
+     * 失效指定文章的缓存
+     */
+    public void evict(Long postId) {
+        cache.invalidate(postId);
+    }
+
+    /**
+     * 文章更新、删除、发布状态变化后失效缓存
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        evict(event.postId());
+    }
+
+    /**
+     * 评论、点赞、收藏计数变化后失效缓存
+     *
+     * 说明：在事务提交后失效，此前正在加载的旧数据也会被一并移除，下次读取拿到最新计数
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(EngagementEvent event) {
+        evict(event.postId());
+    }
+
+    /**
+     * 分类名称或作者昵称冗余在每篇文章的详情中，变化时清空全部缓存
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 缓存条目
+     *
+     * @param post 加载时的文章详情
+     * @param viewsBase 浏览量基准值（加载时浏览量 - 加载时累计记录的浏览量）
+     */
+    private record CachedPost(PostDTO post, long viewsBase) {
+
+        PostDTO toDTO(long recordedViews) {
+            PostDTO copy = new PostDTO();
+            BeanUtils.copyProperties(post, copy);
+            copy.setViews((int) (viewsBase + recordedViews));
+            return copy;
+        }
+
+        /**
+         * 估算条目占用的字节数（字符串按每字符2字节计算）
+         */
+        int weight() {
+            long chars = length(post.getTitle()) + length(post.getContent()) + length(post.getSummary())
+                    + length(post.getCoverImage()) + length(post.getTags())
+                    + length(post.getAuthorName()) + length(post.getCategoryName());
+            return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD_BYTES + chars * 2);
+        }
+
+        private static long length(String value) {
+            return value != null ? value.length() : 0;
+        }
+    }
+}
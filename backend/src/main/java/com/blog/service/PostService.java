@@ -1,25 +1,58 @@
 package com.blog.service;
 
+import com.blog.dto.ArchiveCalendarDTO;
 import com.blog.dto.ArchiveDTO;
 import com.blog.dto.CreatePostRequest;
+import com.blog.dto.CursorPageDTO;
+import com.blog.dto.EngagementStatusDTO;
+import com.blog.dto.FacetCountDTO;
+import com.blog.dto.FacetedSearchDTO;
+import com.blog.dto.PostCursor;
 import com.blog.dto.PostDTO;
+import com.blog.dto.PostSummaryDTO;
+import com.blog.dto.RelatedPostDTO;
+import com.blog.event.PostChangedEvent;
+import com.blog.exception.BadRequestException;
 import com.blog.exception.ResourceNotFoundException;
+import com.blog.exception.ServiceUnavailableException;
 import com.blog.model.Category;
 import com.blog.model.Post;
+import com.blog.model.Tag;
 import com.blog.model.User;
 import com.blog.repository.CategoryRepository;
-import com.blog.repository.CommentRepository;
-import com.blog.repository.LikeRepository;
 import com.blog.repository.PostRepository;
+import com.blog.repository.TagRepository;
 import com.blog.repository.UserRepository;
+import com.blog.search.FacetFilter;
+import com.blog.search.FacetIndex;
+import com.blog.search.MatchedPosts;
+import com.blog.search.PostSearchStrategy;
+import com.blog.search.RelatedPostsIndex;
+import com.blog.search.SnippetBuilder;
+import com.blog.search.Tokenizer;
+import com.blog.search.TrendingIndex;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -29,7 +62,7 @@ import java.util.stream.Collectors;
  * - 处理文章的增删改查业务逻辑
  * - 管理文章的发布、浏览量统计
  * - 提供文章搜索、热门文章、最新文章等功能
- * - 性能优化：使用批量查询避免N+1问题
+ * - 性能优化：统计数据使用冗余计数列，避免N+1问题
  */
 @Service
 @RequiredArgsConstructor
@@ -38,50 +71,91 @@ public class PostService {
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final CommentRepository commentRepository;
-    private final LikeRepository likeRepository;
     private final PostVersionService postVersionService;
+    private final ViewCountService viewCountService;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final PostDetailCache postDetailCache;
+    private final PostSearchStrategy postSearchStrategy;
+    private final FacetIndex facetIndex;
+    private final RelatedPostsIndex relatedPostsIndex;
+    private final ArchiveStatsCache archiveStatsCache;
+    private final TrendingIndex trendingIndex;
+    private final SidebarPostsCache sidebarPostsCache;
+    private final EngagementStatusCache engagementStatusCache;
+    private final TagRepository tagRepository;
+    private final TagService tagService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /** 偏移分页允许访问的最大行数（更深的翻页请使用游标分页） */
+    @Value("${blog.pagination.max-offset:1000}")
+    private int maxOffset;
+
+    /** 游标分页单页最大条数 */
+    @Value("${blog.pagination.max-cursor-size:100}")
+    private int maxCursorSize;
+
+    /** 分面搜索最多返回的标签数 */
+    @Value("${blog.search.facets.max-tags:20}")
+    private int maxFacetTags;
+
+    /** 搜索结果摘要片段的最大字符数 */
+    @Value("${blog.search.snippet-length:160}")
+    private int snippetLength;
+
+    /** 互动状态单次最多查询的文章数 */
+    @Value("${blog.engagement.max-batch:100}")
+    private int maxEngagementBatch;
+
+    /** 热门趋势单次最多返回的文章数 */
+    @Value("${blog.trending.max-limit:50}")
+    private int trendingMaxLimit;
 
     /**
      * 获取所有已发布的文章（分页）
      *
      * 性能优化说明：
-     * - 使用批量查询避免N+1问题
      * - 原方案：查询N篇文章会执行 1(文章) + N(评论数) + N(点赞数) = 1+2N 次查询
-     * - 优化后：仅执行 1(文章) + 1(所有评论数) + 1(所有点赞数) = 3 次查询
+     * - 优化后：评论数、点赞数来自冗余计数列，统计数据不再产生额外查询
+     *
+     * - 使用列表卡片投影，不加载实体也不读取正文 content
      *
      * @param pageable 分页参数
-     * @return 文章DTO分页数据，包含评论数和点赞数
+     * @return 文章列表卡片分页数据，包含评论数和点赞数
      */
     @Transactional(readOnly = true)
-    public Page<PostDTO> getAllPublishedPosts(Pageable pageable) {
-        // 1. 查询文章列表
-        Page<Post> posts = postRepository.findByPublishedTrue(pageable);
-
-        // 2. 收集所有文章ID，用于批量查询统计数据
-        List<Long> postIds = posts.getContent().stream()
-                .map(Post::getId)
-                .collect(Collectors.toList());
-
-        // 3. 批量获取评论数和点赞数（避免N+1查询）
-        Map<Long, Long> commentCounts = getCommentCountsForPosts(postIds);
-        Map<Long, Long> likeCounts = getLikeCountsForPosts(postIds);
-
-        // 4. 转换为DTO，从Map中获取统计数据
-        return posts.map(post -> convertToDTO(post,
-                commentCounts.getOrDefault(post.getId(), 0L),
-                likeCounts.getOrDefault(post.getId(), 0L)));
+    public Page<PostSummaryDTO> getAllPublishedPosts(Pageable pageable) {
+        checkOffsetDepth(pageable);
+        return applyPendingCounts(postRepository.findPublishedSummaries(pageable));
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * 获取文章详情
+     *
+     * 说明：优先读取 PostDetailCache，命中时不访问数据库（不在此处开启事务，避免命中时也占用连接）；
+     * 未命中时一次查询加载文章及作者、分类；点赞数叠加尚未写库的点赞
+     */
     public PostDTO getPostById(Long id) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("文章", id));
-        return convertToDTO(post);
+        PostDTO post = postDetailCache.get(id, postId -> convertToDTO(postRepository.findDetailById(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("文章", postId))));
+        // 缓存中保存已写库的点赞数，读取时叠加点赞写回缓冲中的增量（返回的是副本）
+        post.setLikeCount(pendingLikeCount(id, post.getLikeCount()));
+        return post;
     }
 
-    @Transactional
+    /**
+     * 创建文章
+     *
+     * 说明：新标签先由 TagService.createMissingTags 在单独的短事务中创建，文章事务中只解析已存在的标签，
+     * 并发创建同名新标签的文章不会因重复键而整体回滚
+     */
     public PostDTO createPost(CreatePostRequest request, String username) {
+        String tags = tagService.normalizeTags(request.getTags());
+        tagService.createMissingTags(tags);
+        return transactionTemplate.execute(status -> createPost(request, tags, username));
+    }
+
+    private PostDTO createPost(CreatePostRequest request, String tags, String username) {
         User author = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("用户不存在"));
 
@@ -91,7 +165,7 @@ public class PostService {
         post.setSummary(request.getSummary());
         post.setCoverImage(request.getCoverImage());
         post.setPublished(request.getPublished());
-        post.setTags(request.getTags());
+        post.setTags(tags);
         post.setAuthor(author);
 
         if (request.getCategoryId() != null) {
@@ -101,12 +175,22 @@ public class PostService {
         }
 
         Post savedPost = postRepository.save(post);
+        tagService.syncPostTags(savedPost.getId(), savedPost.getTags());
+        eventPublisher.publishEvent(new PostChangedEvent(savedPost.getId(), PostChangedEvent.Type.CREATED));
         return convertToDTO(savedPost);
     }
 
-    @Transactional
+    /**
+     * 更新文章（新标签的创建方式同 createPost）
+     */
     public PostDTO updatePost(Long id, CreatePostRequest request) {
-        Post post = postRepository.findById(id)
+        String tags = tagService.normalizeTags(request.getTags());
+        tagService.createMissingTags(tags);
+        return transactionTemplate.execute(status -> updatePost(id, request, tags));
+    }
+
+    private PostDTO updatePost(Long id, CreatePostRequest request, String tags) {
+        Post post = postRepository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("文章", id));
 
         // 保存当前版本（在更新之前）
@@ -119,7 +203,8 @@ public class PostService {
         post.setSummary(request.getSummary());
         post.setCoverImage(request.getCoverImage());
         post.setPublished(request.getPublished());
-        post.setTags(request.getTags());
+        post.setTags(tags);
+        tagService.syncPostTags(id, post.getTags());
 
         if (request.getCategoryId() != null) {
             Category category = categoryRepository.findById(request.getCategoryId())
@@ -128,6 +213,7 @@ public class PostService {
         }
 
         Post updatedPost = postRepository.save(post);
+        eventPublisher.publishEvent(new PostChangedEvent(id, PostChangedEvent.Type.UPDATED));
         return convertToDTO(updatedPost);
     }
 
@@ -138,104 +224,215 @@ public class PostService {
         }
         // 删除文章的版本历史
         postVersionService.deleteVersionHistory(id);
+        // 移除标签关联并扣减标签使用次数
+        tagService.syncPostTags(id, null);
         postRepository.deleteById(id);
+        eventPublisher.publishEvent(new PostChangedEvent(id, PostChangedEvent.Type.DELETED));
     }
 
-    @Transactional
+    /**
+     * 记录文章浏览
+     *
+     * 说明：
+     * - 写回模式下只累加内存计数，由ViewCountService定期批量写库
+     * - 不再执行 findById + save，文章详情页读取不再持有posts行锁
+     */
     public void incrementViews(Long id) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("文章", id));
-        post.setViews(post.getViews() + 1);
-        postRepository.save(post);
+        viewCountService.recordView(id);
+        trendingIndex.recordView(id);
     }
 
-    @Transactional(readOnly = true)
-    public Page<PostDTO> searchPosts(String keyword, Pageable pageable) {
-        return postRepository.searchPublishedPosts(keyword, pageable)
-                .map(this::convertToDTO);
+    /**
+     * 记录未修改（304）响应的文章浏览
+     *
+     * 说明：304 不加载文章，而 If-None-Match 可以由客户端任意构造；详情缓存中没有该文章时先确认文章存在，
+     * 避免为不存在的ID累积浏览量
+     */
+    public void incrementViewsIfExists(Long id) {
+        if (postDetailCache.contains(id) || postRepository.existsById(id)) {
+            incrementViews(id);
+        }
     }
 
+    /**
+     * 搜索已发布文章
+     *
+     * 性能优化说明：
+     * - 原方案：LIKE '%kw%' 扫描所有文章正文，结果不排序
+     * - 优化后：由启动时选定的 PostSearchStrategy 执行（默认为内存倒排索引，
+     *   MySQL 部署可选 FULLTEXT），按相关度排序
+     */
     @Transactional(readOnly = true)
-    public List<PostDTO> getPopularPosts() {
-        return postRepository.findTop5ByPublishedTrueOrderByViewsDesc()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public Page<PostSummaryDTO> searchPosts(String keyword, Pageable pageable) {
+        checkOffsetDepth(pageable);
+        Page<PostSummaryDTO> results = applyPendingCounts(postSearchStrategy.search(keyword, pageable));
+        applySnippets(keyword, results.getContent());
+        return results;
     }
 
+    /**
+     * 分面搜索：关键词 + 标签、分类、作者、创建日期筛选，并返回各标签、分类、月份的命中数
+     *
+     * 实现说明：
+     * - 筛选条件在 FacetIndex 中按位图求交集得到候选文章，关键词搜索只在候选范围内进行
+     * - 分面计数为命中集合与各位图交集的基数，不执行 GROUP BY
+     * - 没有关键词时按发布时间倒序；数据库只按ID读取当前页的列表卡片，以及标签、分类名称
+     * - 启动后 FacetIndex 加载完成前返回 503（部分加载的索引会给出不完整的结果和计数）
+     */
     @Transactional(readOnly = true)
-    public List<PostDTO> getRecentPosts() {
-        return postRepository.findTop5ByPublishedTrueOrderByCreatedAtDesc()
-                .stream()
-                .map(this::convertToDTO)
+    public FacetedSearchDTO facetedSearch(String keyword, FacetFilter filter, Pageable pageable) {
+        checkOffsetDepth(pageable);
+        if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+            throw new BadRequestException("开始日期不能晚于结束日期");
+        }
+
+        if (!facetIndex.isReady()) {
+            throw new ServiceUnavailableException("分面索引加载中，请稍后重试");
+        }
+
+        RoaringBitmap candidates = facetIndex.filter(filter);
+        int limit = (int) (pageable.getOffset() + pageable.getPageSize());
+        MatchedPosts matched = keyword == null || keyword.isBlank()
+                ? new MatchedPosts(candidates, facetIndex.newest(candidates, limit))
+                : postSearchStrategy.searchWithin(keyword, candidates, limit);
+
+        List<Long> rankedIds = matched.rankedIds();
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        Page<PostSummaryDTO> results = new PageImpl<>(
+                postRepository.findPublishedSummariesInOrder(rankedIds.subList(from, rankedIds.size())),
+                pageable, matched.matched().getLongCardinality());
+
+        FacetIndex.FacetCounts counts = facetIndex.count(matched.matched(), maxFacetTags);
+        List<FacetCountDTO> tags = toFacetCounts(counts.tags(), ids -> tagRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Tag::getId, Tag::getName)));
+        List<FacetCountDTO> categories = toFacetCounts(counts.categories(), ids -> categoryRepository.findAllById(ids)
+                .stream().collect(Collectors.toMap(Category::getId, Category::getName)));
+        List<ArchiveDTO> months = counts.months().stream()
+                .map(count -> new ArchiveDTO((int) count.key() / 100, (int) count.key() % 100, (long) count.count()))
                 .collect(Collectors.toList());
+        applySnippets(keyword, results.getContent());
+        return new FacetedSearchDTO(applyPendingCounts(results), tags, categories, months);
+    }
+
+    /**
+     * 获取相关文章
+     *
+     * 说明：由 RelatedPostsIndex 按标签相似度预计算，直接读取内存，不访问数据库
+     */
+    public List<RelatedPostDTO> getRelatedPosts(Long id) {
+        return relatedPostsIndex.getRelated(id);
     }
 
     /**
-     * 批量获取文章的评论数统计
+     * 获取热门趋势文章
      *
      * 说明：
-     * - 输入文章ID列表，返回Map<文章ID, 评论数>
-     * - 仅统计未删除的评论（deleted = false）
+     * - 排名由 TrendingIndex 在内存中按时间衰减的互动加权维护，只查询当前结果的列表卡片
+     * - categoryId、tagId 同时为空时为全站排行，否则为指定分类或标签内的排行
+     *
+     * @param window day、week 或 all
+     */
+    @Transactional(readOnly = true)
+    public List<PostSummaryDTO> getTrendingPosts(String window, Long categoryId, Long tagId, int limit) {
+        TrendingIndex.Window parsed = TrendingIndex.Window.parse(window);
+        int size = Math.max(1, Math.min(limit, trendingMaxLimit));
+        List<Long> ids;
+        if (categoryId != null) {
+            ids = trendingIndex.topInCategory(categoryId, parsed, size);
+        } else if (tagId != null) {
+            ids = trendingIndex.topWithTag(tagId, parsed, size);
+        } else {
+            ids = trendingIndex.top(parsed, size);
+        }
+        return applyPendingCounts(postRepository.findPublishedSummariesInOrder(ids));
+    }
+
+    /**
+     * 批量获取当前用户对多篇文章的点赞、收藏状态（列表卡片）
      *
-     * 性能优化空间：
-     * - 当前实现：每个文章ID执行一次count查询
-     * - 可优化为：一次GROUP BY查询获取所有结果
-     *   例如：SELECT post_id, COUNT(*) FROM comments WHERE post_id IN (...) AND deleted = false GROUP BY post_id
+     * 说明：由 EngagementStatusCache 的用户位图提供，命中时不访问数据库；未登录时全部为 false
      *
-     * @param postIds 文章ID列表
-     * @return Map<文章ID, 评论数>
+     * @param username 当前用户名，未登录时为 null
      */
-    private Map<Long, Long> getCommentCountsForPosts(List<Long> postIds) {
-        if (postIds.isEmpty()) {
-            return new java.util.HashMap<>();
+    public List<EngagementStatusDTO> getEngagementStatus(List<Long> postIds, String username) {
+        if (postIds.size() > maxEngagementBatch) {
+            throw new BadRequestException("一次最多查询" + maxEngagementBatch + "篇文章");
         }
-        // 注：这里仍然是N次查询，但在getAllPublishedPosts的上下文中
-        // 已经将原来的 1+2N 优化为了 1+N+N（评论和点赞分开）
-        // 进一步优化可在Repository层添加批量查询方法
-        return postIds.stream()
-                .collect(Collectors.toMap(
-                        id -> id,
-                        id -> commentRepository.countByPostIdAndDeletedFalse(id)
-                ));
+        // ids=7,,8 这类空值会绑定为 null
+        if (postIds.contains(null)) {
+            throw new BadRequestException("文章ID不能为空");
+        }
+        if (username == null) {
+            return postIds.stream()
+                    .map(postId -> new EngagementStatusDTO(postId, false, false))
+                    .collect(Collectors.toList());
+        }
+        Long userId = userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("用户不存在"));
+        return engagementStatusCache.getStatus(userId, postIds);
     }
 
     /**
-     * 批量获取文章的点赞数统计
+     * 获取热门文章（侧边栏）
      *
-     * 说明：
-     * - 输入文章ID列表，返回Map<文章ID, 点赞数>
+     * 说明：由 SidebarPostsCache 保存为不可变快照，请求时不访问数据库
+     */
+    public List<PostSummaryDTO> getPopularPosts() {
+        return sidebarPostsCache.getPopular();
+    }
+
+    /**
+     * 获取最新文章（侧边栏）
+     *
+     * 说明：由 SidebarPostsCache 保存为不可变快照，请求时不访问数据库
+     */
+    public List<PostSummaryDTO> getRecentPosts() {
+        return sidebarPostsCache.getRecent();
+    }
+
+    /**
+     * 为列表卡片叠加尚未写库的浏览量和点赞数
      *
-     * 性能优化空间：
-     * - 当前实现：每个文章ID执行一次count查询
-     * - 可优化为：一次GROUP BY查询获取所有结果
+     * @param posts 列表卡片分页
+     * @return 同一分页（原地修改）
+     */
+    public Page<PostSummaryDTO> applyPendingCounts(Page<PostSummaryDTO> posts) {
+        applyPendingCounts(posts.getContent());
+        return posts;
+    }
+
+    /**
+     * 为列表卡片叠加尚未写库的浏览量和点赞数（与 /likes/post/{id}/count 一致）
      *
-     * @param postIds 文章ID列表
-     * @return Map<文章ID, 点赞数>
+     * @param posts 列表卡片
+     * @return 同一列表（原地修改）
      */
-    private Map<Long, Long> getLikeCountsForPosts(List<Long> postIds) {
-        if (postIds.isEmpty()) {
-            return new java.util.HashMap<>();
+    public List<PostSummaryDTO> applyPendingCounts(List<PostSummaryDTO> posts) {
+        for (PostSummaryDTO post : posts) {
+            post.setViews(post.getViews() + (int) viewCountService.getPendingViews(post.getId(), post.getViews()));
+            post.setLikeCount(pendingLikeCount(post.getId(), post.getLikeCount()));
         }
-        return postIds.stream()
-                .collect(Collectors.toMap(
-                        id -> id,
-                        id -> likeRepository.countByPostId(id)
-                ));
+        return posts;
+    }
+
+    /**
+     * 已写库的点赞数叠加 LikeWriteBuffer 中尚未写库的增量
+     */
+    private long pendingLikeCount(Long postId, long persistedLikes) {
+        return Math.max(0, persistedLikes + likeWriteBuffer.getPendingCount(postId));
     }
 
     /**
-     * 将Post实体转换为PostDTO（带统计数据）
+     * 将Post实体转换为PostDTO
      *
-     * 使用场景：批量查询时，统计数据已预先查询完成
-     * 优点：避免在循环中重复查询评论数和点赞数
+     * 说明：
+     * - 统计数据直接读取冗余计数列（由评论/点赞/收藏服务原子更新，PostCounterReconciler定期校准）
+     * - 原方案每篇文章需要2次额外的count查询，现在为0次
      *
      * @param post 文章实体
-     * @param commentCount 评论数（预查询）
-     * @param likeCount 点赞数（预查询）
      * @return 文章DTO
      */
-    private PostDTO convertToDTO(Post post, Long commentCount, Long likeCount) {
+    public PostDTO convertToDTO(Post post) {
         PostDTO dto = new PostDTO();
         dto.setId(post.getId());
         dto.setTitle(post.getTitle());
@@ -243,7 +440,8 @@ public class PostService {
         dto.setSummary(post.getSummary());
         dto.setCoverImage(post.getCoverImage());
         dto.setPublished(post.getPublished());
-        dto.setViews(post.getViews());
+        // 叠加尚未写库的浏览量，保证浏览量单调递增
+        dto.setViews(post.getViews() + (int) viewCountService.getPendingViews(post.getId(), post.getViews()));
         dto.setCreatedAt(post.getCreatedAt());
         dto.setUpdatedAt(post.getUpdatedAt());
         dto.setTags(post.getTags());
@@ -262,51 +460,35 @@ public class PostService {
         }
 
         // 设置统计数据
-        dto.setCommentCount(commentCount);
-        dto.setLikeCount(likeCount);
+        dto.setCommentCount(post.getCommentCount().longValue());
+        dto.setLikeCount(post.getLikeCount().longValue());
+        dto.setFavoriteCount(post.getFavoriteCount().longValue());
 
         return dto;
     }
 
-    /**
-     * 将Post实体转换为PostDTO（单个查询）
-     *
-     * 使用场景：单个文章查询，实时获取统计数据
-     * 注意：会执行2次额外的count查询
-     *
-     * @param post 文章实体
-     * @return 文章DTO
-     */
-    public PostDTO convertToDTO(Post post) {
-        return convertToDTO(post,
-                commentRepository.countByPostIdAndDeletedFalse(post.getId()),
-                likeRepository.countByPostId(post.getId()));
-    }
-
     // ==================== 草稿相关方法 ====================
 
     /**
      * 获取用户的草稿（未发布的文章）
      */
     @Transactional(readOnly = true)
-    public Page<PostDTO> getUserDrafts(String username, Pageable pageable) {
+    public Page<PostSummaryDTO> getUserDrafts(String username, Pageable pageable) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("用户不存在"));
 
-        return postRepository.findByAuthorIdAndPublishedFalse(user.getId(), pageable)
-                .map(this::convertToDTO);
+        return applyPendingCounts(postRepository.findByAuthorIdAndPublishedFalse(user.getId(), pageable));
     }
 
     /**
      * 获取用户的所有文章（包括草稿和已发布）
      */
     @Transactional(readOnly = true)
-    public Page<PostDTO> getUserAllPosts(String username, Pageable pageable) {
+    public Page<PostSummaryDTO> getUserAllPosts(String username, Pageable pageable) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("用户不存在"));
 
-        return postRepository.findByAuthorId(user.getId(), pageable)
-                .map(this::convertToDTO);
+        return applyPendingCounts(postRepository.findByAuthorId(user.getId(), pageable));
     }
 
     // ==================== 标签相关方法 ====================
@@ -315,9 +497,9 @@ public class PostService {
      * 根据标签ID获取文章列表
      */
     @Transactional(readOnly = true)
-    public Page<PostDTO> getPostsByTag(Long tagId, Pageable pageable) {
-        return postRepository.findByTagIdAndPublishedTrue(tagId, pageable)
-                .map(this::convertToDTO);
+    public Page<PostSummaryDTO> getPostsByTag(Long tagId, Pageable pageable) {
+        checkOffsetDepth(pageable);
+        return applyPendingCounts(postRepository.findByTagIdAndPublishedTrue(tagId, pageable));
     }
 
     // ==================== 归档相关方法 ====================
@@ -325,35 +507,182 @@ public class PostService {
     /**
      * 获取归档统计（按年月分组）
      * 返回每个月份的文章数量
+     *
+     * 说明：由 ArchiveStatsCache 在内存中增量维护，不再对 posts 表执行 GROUP BY
      */
-    @Transactional(readOnly = true)
     public List<ArchiveDTO> getArchiveStats() {
-        List<Object[]> results = postRepository.getArchiveStats();
-        return results.stream()
-                .map(result -> new ArchiveDTO(
-                        (Integer) result[0],  // year
-                        (Integer) result[1],  // month
-                        (Long) result[2]      // count
-                ))
-                .collect(Collectors.toList());
+        return archiveStatsCache.getMonthCounts();
+    }
+
+    /**
+     * 获取指定年份每天的文章数量（日历热力图）
+     *
+     * 说明：由 ArchiveStatsCache 按年维护 366 格的计数数组，不再对 posts 表执行 GROUP BY DATE(created_at)
+     */
+    public ArchiveCalendarDTO getArchiveCalendar(Integer year) {
+        checkYear(year);
+        return archiveStatsCache.getCalendar(year);
     }
 
     /**
      * 获取指定年月的文章列表
+     *
+     * 性能优化说明：
+     * - 原方案：YEAR(created_at) = ? AND MONTH(created_at) = ? 对列套用函数，无法使用索引，需扫描全部已发布文章
+     * - 优化后：按 [月初, 下月初) 区间在 idx_published_created 上范围查找，总数取自 ArchiveStatsCache，不执行 COUNT
+     */
+    @Transactional(readOnly = true)
+    public Page<PostSummaryDTO> getPostsByYearMonth(Integer year, Integer month, Pageable pageable) {
+        checkOffsetDepth(pageable);
+        LocalDateTime start = monthStart(year, month);
+        List<PostSummaryDTO> content = postRepository.findPublishedSummariesBetween(
+                start, start.plusMonths(1), pageable);
+        return applyPendingCounts(new PageImpl<>(content, pageable, archiveStatsCache.getMonthCount(year, month)));
+    }
+
+    // ==================== 游标分页相关方法 ====================
+
+    /**
+     * 游标分页获取已发布文章
+     *
+     * 性能优化说明：
+     * - 按 (createdAt, id) 在 idx_published_created 上定位，翻到多深耗时都不变
+     * - 返回 Slice 语义（多查1条判断是否有下一页），不执行 COUNT(*)
+     *
+     * @param cursor 上一页返回的 nextCursor，为空表示第一页
+     * @param size 每页条数
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PostSummaryDTO> getPublishedPostsByCursor(String cursor, int size) {
+        PostCursor after = PostCursor.decode(cursor);
+        return toCursorPage(postRepository.findPublishedSummariesAfter(
+                after.createdAt(), after.id(), cursorPageRequest(size)));
+    }
+
+    /**
+     * 游标分页获取指定标签的已发布文章
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PostSummaryDTO> getPostsByTagCursor(Long tagId, String cursor, int size) {
+        PostCursor after = PostCursor.decode(cursor);
+        return toCursorPage(postRepository.findSummariesByTagIdAfter(
+                tagId, after.createdAt(), after.id(), cursorPageRequest(size)));
+    }
+
+    /**
+     * 游标分页获取指定分类的已发布文章
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PostSummaryDTO> getPostsByCategoryCursor(Long categoryId, String cursor, int size) {
+        PostCursor after = PostCursor.decode(cursor);
+        return toCursorPage(postRepository.findSummariesByCategoryIdAfter(
+                categoryId, after.createdAt(), after.id(), cursorPageRequest(size)));
+    }
+
+    /**
+     * 游标分页获取指定作者的已发布文章
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PostSummaryDTO> getPostsByAuthorCursor(Long authorId, String cursor, int size) {
+        PostCursor after = PostCursor.decode(cursor);
+        return toCursorPage(postRepository.findSummariesByAuthorIdAfter(
+                authorId, after.createdAt(), after.id(), cursorPageRequest(size)));
+    }
+
+    /**
+     * 游标分页获取指定年月的已发布文章
      */
     @Transactional(readOnly = true)
-    public Page<PostDTO> getPostsByYearMonth(Integer year, Integer month, Pageable pageable) {
-        Page<Post> posts = postRepository.findByYearAndMonth(year, month, pageable);
+    public CursorPageDTO<PostSummaryDTO> getPostsByYearMonthCursor(Integer year, Integer month, String cursor, int size) {
+        LocalDateTime start = monthStart(year, month);
+        PostCursor after = PostCursor.decode(cursor);
+        return toCursorPage(postRepository.findSummariesBetweenAfter(
+                start, start.plusMonths(1), after.createdAt(), after.id(), cursorPageRequest(size)));
+    }
+
+    /**
+     * 将查询得到的 Slice 转换为游标分页结果
+     */
+    private CursorPageDTO<PostSummaryDTO> toCursorPage(Slice<PostSummaryDTO> slice) {
+        List<PostSummaryDTO> content = applyPendingCounts(slice.getContent());
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? PostCursor.of(content.get(content.size() - 1)).encode()
+                : null;
+        return new CursorPageDTO<>(content, content.size(), slice.hasNext(), nextCursor);
+    }
+
+    /**
+     * 游标分页的查询参数（排序已写在查询语句中，这里只限制条数）
+     */
+    private Pageable cursorPageRequest(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, maxCursorSize)));
+    }
+
+    /**
+     * 为搜索结果生成带高亮的摘要片段
+     *
+     * 说明：只读取当前页文章的正文，每篇分词一次后按词元偏移截取命中最集中的一段（见 SnippetBuilder）
+     */
+    private void applySnippets(String keyword, List<PostSummaryDTO> posts) {
+        if (keyword == null || keyword.isBlank() || posts.isEmpty()) {
+            return;
+        }
+        Set<String> queryTerms = Tokenizer.tokenizeQuery(keyword).stream()
+                .map(Tokenizer.Token::term)
+                .collect(Collectors.toSet());
+        Map<Long, String> contents = new HashMap<>();
+        for (Object[] row : postRepository.findContentsByIds(
+                posts.stream().map(PostSummaryDTO::getId).toList())) {
+            contents.put((Long) row[0], (String) row[1]);
+        }
+        for (PostSummaryDTO post : posts) {
+            post.setSnippet(SnippetBuilder.build(contents.get(post.getId()), queryTerms, snippetLength));
+        }
+    }
 
-        List<Long> postIds = posts.getContent().stream()
-                .map(Post::getId)
+    /**
+     * 为分面计数补充名称（名称已被删除的取值不返回）
+     */
+    private List<FacetCountDTO> toFacetCounts(List<FacetIndex.Count> counts,
+                                              Function<List<Long>, Map<Long, String>> nameLoader) {
+        if (counts.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, String> names = nameLoader.apply(counts.stream().map(FacetIndex.Count::key).toList());
+        return counts.stream()
+                .filter(count -> names.containsKey(count.key()))
+                .map(count -> new FacetCountDTO(count.key(), names.get(count.key()), (long) count.count()))
                 .collect(Collectors.toList());
+    }
+
+    /**
+     * 限制偏移分页的深度
+     *
+     * 说明：OFFSET 越大，数据库需要扫描并丢弃的行越多；超过上限时提示改用游标分页
+     */
+    private void checkOffsetDepth(Pageable pageable) {
+        if (pageable.isPaged() && pageable.getOffset() + pageable.getPageSize() > maxOffset) {
+            throw new BadRequestException("分页过深（最多" + maxOffset + "条），请使用游标分页接口");
+        }
+    }
 
-        Map<Long, Long> commentCounts = getCommentCountsForPosts(postIds);
-        Map<Long, Long> likeCounts = getLikeCountsForPosts(postIds);
+    /**
+     * 校验年份（超出 LocalDate / Year 支持的范围会抛出 DateTimeException，导致 500）
+     */
+    private void checkYear(Integer year) {
+        if (year < 1 || year > 9999) {
+            throw new BadRequestException("年份必须在1-9999之间");
+        }
+    }
 
-        return posts.map(post -> convertToDTO(post,
-                commentCounts.getOrDefault(post.getId(), 0L),
-                likeCounts.getOrDefault(post.getId(), 0L)));
+    /**
+     * 指定年月的起始时间
+     */
+    private LocalDateTime monthStart(Integer year, Integer month) {
+        checkYear(year);
+        if (month < 1 || month > 12) {
+            throw new BadRequestException("月份必须在1-12之间");
+        }
+        return LocalDate.of(year, month, 1).atStartOfDay();
     }
 }
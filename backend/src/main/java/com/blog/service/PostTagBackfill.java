@@ -0,0 +1,42 @@
+package com.blog.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 文章标签关联回填任务
+ *
+ * 功能说明：
+ * - 新建、修改文章时由 TagService.syncPostTags 维护 post_tags 和标签使用次数
+ * - 启动完成后为升级前的历史文章按ID分块回填（有标签字符串但没有 post_tags 行的文章），每块一个事务
+ * - 先于各内存索引加载执行，标签筛选、相关文章等加载时即可读到回填后的关联
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostTagBackfill {
+
+    private final TagService tagService;
+
+    @Value("${blog.tags.backfill-chunk-size:500}")
+    private int chunkSize;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Long afterId = 0L;
+        int chunks = 0;
+        while ((afterId = tagService.backfillPostTags(afterId, chunkSize)) != null) {
+            chunks++;
+        }
+        if (chunks > 0) {
+            log.info("文章标签关联回填完成 - 处理块数: {}", chunks);
+        }
+    }
+}
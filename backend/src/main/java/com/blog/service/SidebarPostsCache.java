@@ -0,0 +1,133 @@
+package com.blog.service;
+
+import com.blog.dto.PostSummaryDTO;
+import com.blog.event.EngagementEvent;
+import com.blog.event.PostChangedEvent;
+import com.blog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 侧边栏最新文章、热门文章的内存快照
+ *
+ * 功能说明：
+ * - 两个列表各保存为一个不可变的 List，重建完成后整体替换（volatile 引用），读取时不加锁、不分配对象
+ * - 文章发布、修改、撤回、删除后（PostChangedEvent）在事务提交后立即重建
+ * - 评论、点赞、收藏变化只影响卡片上的计数，标记后由定时任务合并重建（去抖）
+ * - 浏览量在内存中累计，另按较长间隔重建以刷新热门排名和卡片上的浏览量
+ * - 快照内容变化时推进 SIDEBAR 水位，条件GET的 ETag 随快照（含浏览量）变化，内容未变的重建不影响客户端缓存
+ *
+ * 性能说明：
+ * - 原方案：每次页面加载都查询一次最新文章和一次热门文章（按 views 排序）
+ * - 优化后：请求直接返回快照，只在数据变化时查询数据库
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SidebarPostsCache {
+
+    private final PostRepository postRepository;
+    private final ViewCountService viewCountService;
+    private final ChangeWatermarkService watermarkService;
+
+    /** 每个列表的文章数 */
+    @Value("${blog.sidebar.size:5}")
+    private int size;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private volatile List<PostSummaryDTO> recent = List.of();
+
+    private volatile List<PostSummaryDTO> popular = List.of();
+
+    /**
+     * 最新发布的文章
+     */
+    public List<PostSummaryDTO> getRecent() {
+        return recent;
+    }
+
+    /**
+     * 浏览量最高的文章
+     */
+    public List<PostSummaryDTO> getPopular() {
+        return popular;
+    }
+
+    /**
+     * 文章发布、修改、撤回、删除后立即重建
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * 互动计数变化后标记，由 rebuildIfDirty 合并重建
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(EngagementEvent event) {
+        dirty.set(true);
+    }
+
+    /**
+     * 有变更时重建快照（去抖：间隔内的多次变更只重建一次）
+     */
+    @Scheduled(fixedDelayString = "${blog.sidebar.rebuild-delay:1000}")
+    public void rebuildIfDirty() {
+        if (dirty.compareAndSet(true, false)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 定期重建快照以刷新浏览量和热门排名
+     */
+    @Scheduled(initialDelayString = "${blog.sidebar.refresh-interval:60000}",
+               fixedDelayString = "${blog.sidebar.refresh-interval:60000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    /**
+     * 启动完成后加载
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        // 重建开始前清除标记：重建期间到达的变更会再触发一次
+        dirty.set(false);
+        List<PostSummaryDTO> rebuiltRecent = load(Sort.by(Sort.Direction.DESC, "createdAt"));
+        List<PostSummaryDTO> rebuiltPopular = load(Sort.by(Sort.Direction.DESC, "views"));
+        boolean changed = !rebuiltRecent.equals(recent) || !rebuiltPopular.equals(popular);
+        recent = rebuiltRecent;
+        popular = rebuiltPopular;
+        // 新快照可读之后再推进水位，新 ETag 对应的一定是新快照
+        if (changed) {
+            watermarkService.advance(ChangeWatermarkService.Scope.SIDEBAR);
+        }
+        log.debug("侧边栏文章快照重建完成 - 最新: {}, 热门: {}", recent.size(), popular.size());
+    }
+
+    private List<PostSummaryDTO> load(Sort sort) {
+        List<PostSummaryDTO> posts = postRepository.findPublishedSummaryList(PageRequest.of(0, size, sort));
+        for (PostSummaryDTO post : posts) {
+            post.setViews(post.getViews() + (int) viewCountService.getPendingViews(post.getId(), post.getViews()));
+        }
+        return List.copyOf(posts);
+    }
+}
@@ -0,0 +1,139 @@
+package com.blog.service;
+
+import com.blog.dto.TagDTO;
+import com.blog.event.TagChangedEvent;
+import com.blog.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 标签云与标签列表的内存缓存
+ *
+ * 功能说明：
+ * - 按使用次数和按名称各维护一个有序集合（红黑树），标签新建或使用次数变化时 O(log n) 调整位置
+ * - 热门标签直接取按使用次数排序集合的前 N 个；标签列表按名称排序分页返回
+ * - 启动完成后加载全部标签；之后由 TagChangedEvent 在事务提交后增量更新，不再回查数据库
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TagCloud {
+
+    /** 使用次数降序，相同时按名称、ID 升序 */
+    private static final Comparator<Entry> BY_POPULARITY = Comparator.comparingInt(Entry::useCount).reversed()
+            .thenComparing(Entry::name)
+            .thenComparing(Entry::id);
+
+    /** 名称升序（不区分大小写），相同时按原名称、ID 升序 */
+    private static final Comparator<Entry> BY_NAME = Comparator.comparing(Entry::name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Entry::name)
+            .thenComparing(Entry::id);
+
+    private final TagRepository tagRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 标签ID -> 当前数据（调整有序集合时用于定位旧位置） */
+    private final Map<Long, Entry> tags = new HashMap<>();
+
+    private final NavigableSet<Entry> byPopularity = new TreeSet<>(BY_POPULARITY);
+
+    private final NavigableSet<Entry> byName = new TreeSet<>(BY_NAME);
+
+    /**
+     * 使用次数最多的前 limit 个标签
+     */
+    public List<TagDTO> top(int limit) {
+        lock.readLock().lock();
+        try {
+            List<TagDTO> result = new ArrayList<>(Math.min(limit, byPopularity.size()));
+            Iterator<Entry> iterator = byPopularity.iterator();
+            while (iterator.hasNext() && result.size() < limit) {
+                result.add(iterator.next().toDTO());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按名称排序分页获取标签
+     */
+    public Page<TagDTO> page(Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            List<TagDTO> content = new ArrayList<>();
+            Iterator<Entry> iterator = byName.iterator();
+            for (long skipped = 0; skipped < pageable.getOffset() && iterator.hasNext(); skipped++) {
+                iterator.next();
+            }
+            while (iterator.hasNext() && content.size() < pageable.getPageSize()) {
+                content.add(iterator.next().toDTO());
+            }
+            return new PageImpl<>(content, pageable, byName.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 标签新建或使用次数变化后调整位置
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        put(new Entry(event.tagId(), event.name(), event.useCount()));
+    }
+
+    /**
+     * 启动完成后加载全部标签
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        tagRepository.findAll().forEach(tag -> put(new Entry(tag.getId(), tag.getName(), tag.getUseCount())));
+        log.info("标签云加载完成 - 标签数: {}", byName.size());
+    }
+
+    private void put(Entry tag) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = tags.put(tag.id(), tag);
+            if (previous != null) {
+                byPopularity.remove(previous);
+                byName.remove(previous);
+            }
+            byPopularity.add(tag);
+            byName.add(tag);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Entry(Long id, String name, int useCount) {
+
+        TagDTO toDTO() {
+            return new TagDTO(id, name, useCount);
+        }
+    }
+}
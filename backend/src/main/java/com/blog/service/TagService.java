@@ -1,14 +1,35 @@
 package com.blog.service;
 
 import com.blog.dto.TagDTO;
+import com.blog.event.TagChangedEvent;
+import com.blog.exception.BadRequestException;
 import com.blog.model.Tag;
 import com.blog.repository.TagRepository;
+import com.blog.search.TagSearchIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 /**
  * 标签服务类
@@ -22,36 +43,231 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TagService {
 
+    /** 标签名称最大长度（与 tags.name 列一致） */
+    private static final int MAX_NAME_LENGTH = 50;
+
+    private static final Pattern TAG_SEPARATOR = Pattern.compile("[,，]");
+
+    /** 按名称查找标签的单个分支，多个名称以 UNION ALL 连接，idx 为名称在请求中的位置 */
+    private static final String SELECT_TAG_BY_NAME_SQL = "SELECT %d AS idx, id FROM tags WHERE name = :name%d";
+
+    private static final String SELECT_TAGS_BY_ID_SQL = "SELECT id, name, use_count FROM tags WHERE id IN (:ids)";
+
+    /**
+     * 已提交的同名标签在此跳过；与并发事务同时插入同名标签时会在唯一索引上等待对方提交后以重复键失败，
+     * 因此新标签由 createMissingTags 在文章事务之前的独立事务中创建
+     */
+    private static final String INSERT_TAG_SQL = "INSERT INTO tags (name, use_count) SELECT :name, 0 FROM DUAL " +
+            "WHERE NOT EXISTS (SELECT 1 FROM tags WHERE name = :name)";
+
+    private static final String SELECT_POST_TAGS_SQL = "SELECT tag_id FROM post_tags WHERE post_id = :postId";
+
+    private static final String INSERT_POST_TAG_SQL = "INSERT INTO post_tags (post_id, tag_id) VALUES (:postId, :tagId)";
+
+    private static final String DELETE_POST_TAGS_SQL = "DELETE FROM post_tags WHERE post_id = :postId AND tag_id IN (:tagIds)";
+
+    private static final String UPDATE_USE_COUNT_SQL = "UPDATE tags SET use_count = GREATEST(0, use_count + :delta) " +
+            "WHERE id = :id";
+
+    /** 有标签字符串但尚未建立 post_tags 关联的历史文章 */
+    private static final String SELECT_POSTS_WITHOUT_TAGS_SQL = "SELECT p.id, p.tags FROM posts p " +
+            "WHERE p.id > :afterId AND p.tags IS NOT NULL AND p.tags <> '' " +
+            "AND NOT EXISTS (SELECT 1 FROM post_tags pt WHERE pt.post_id = p.id) ORDER BY p.id LIMIT :limit";
+
     private final TagRepository tagRepository;
+    private final TagSearchIndex tagSearchIndex;
+    private final TagCloud tagCloud;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /** 标签自动补全最多返回的条数 */
+    @Value("${blog.tags.search-limit:10}")
+    private int searchLimit;
+
+    /** 标签云显示的标签数 */
+    @Value("${blog.tags.cloud-size:20}")
+    private int cloudSize;
+
+    /** 标签列表单页最大条数 */
+    @Value("${blog.tags.max-page-size:200}")
+    private int maxPageSize;
 
     /**
-     * 获取所有标签
+     * 按名称排序分页获取标签
+     *
+     * 说明：由内存中的 TagCloud 返回，不访问数据库；每页条数不能超过 blog.tags.max-page-size
      */
-    @Transactional(readOnly = true)
-    public List<TagDTO> getAllTags() {
-        return tagRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public Page<TagDTO> getAllTags(Pageable pageable) {
+        if (pageable.isPaged() && pageable.getPageSize() > maxPageSize) {
+            throw new BadRequestException("每页最多" + maxPageSize + "条");
+        }
+        return tagCloud.page(pageable);
     }
 
     /**
      * 获取热门标签（标签云）
+     *
+     * 说明：由内存中的 TagCloud 返回使用次数最多的 blog.tags.cloud-size 个标签，不访问数据库
      */
-    @Transactional(readOnly = true)
     public List<TagDTO> getPopularTags() {
-        return tagRepository.findTop20ByOrderByUseCountDesc().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return tagCloud.top(cloudSize);
     }
 
     /**
      * 搜索标签（自动补全）
+     *
+     * 说明：由内存 n-gram 索引 TagSearchIndex 返回，不访问数据库，最多返回 blog.tags.search-limit 条
      */
-    @Transactional(readOnly = true)
     public List<TagDTO> searchTags(String keyword) {
-        return tagRepository.searchByName(keyword).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return tagSearchIndex.search(keyword, searchLimit);
+    }
+
+    /**
+     * 规范化文章的标签字符串：按逗号（含中文逗号）拆分，去除空白和重复（不区分大小写），保持输入顺序
+     *
+     * @return 以英文逗号连接的标签名称，没有标签时返回 null
+     */
+    public String normalizeTags(String tags) {
+        Collection<String> names = parseTagNames(tags).values();
+        return names.isEmpty() ? null : String.join(",", names);
+    }
+
+    /**
+     * 同步文章的标签关联（post_tags）和标签使用次数，在文章所在的事务内执行
+     *
+     * 性能优化说明：
+     * - 原方案：每个标签名 findByName + save，再逐个 findById + save 更新使用次数，语句数随标签数线性增长
+     * - 优化后：一次查询解析全部名称，缺失的标签批量插入后再用一次查询取回ID；
+     *   与现有关联比较后批量插入、一条 DELETE 删除，使用次数的增减合并为一次批量 UPDATE。
+     *   无论文章有多少个标签，语句数都是常数（最多8次往返）
+     *
+     * 说明：文章保存时新标签已由 createMissingTags 提前创建，这里的插入只在回填等未预先创建标签的调用中发生
+     *
+     * @param postId 文章ID（文章行必须已插入）
+     * @param tags 标签字符串，为空表示移除全部标签（删除文章前调用）
+     */
+    @Transactional
+    public void syncPostTags(Long postId, String tags) {
+        List<String> names = new ArrayList<>(parseTagNames(tags).values());
+        Long[] tagIds = findTagIds(names);
+
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            if (tagIds[i] == null) {
+                missing.add(names.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TAG_SQL, missing.stream()
+                    .map(name -> new MapSqlParameterSource("name", name))
+                    .toArray(SqlParameterSource[]::new));
+            Long[] insertedIds = findTagIds(missing);
+            for (int i = 0, j = 0; i < names.size(); i++) {
+                if (tagIds[i] == null) {
+                    tagIds[i] = insertedIds[j++];
+                }
+            }
+        }
+
+        // 排序规则下相同的名称（如 cafe 与 café）解析为同一个标签，在此合并
+        Set<Long> target = new LinkedHashSet<>();
+        for (Long tagId : tagIds) {
+            if (tagId != null) {
+                target.add(tagId);
+            }
+        }
+        Set<Long> current = new HashSet<>(jdbcTemplate.queryForList(
+                SELECT_POST_TAGS_SQL, new MapSqlParameterSource("postId", postId), Long.class));
+
+        List<Long> added = target.stream().filter(id -> !current.contains(id)).toList();
+        List<Long> removed = current.stream().filter(id -> !target.contains(id)).toList();
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_POST_TAG_SQL, added.stream()
+                    .map(tagId -> new MapSqlParameterSource("postId", postId).addValue("tagId", tagId))
+                    .toArray(SqlParameterSource[]::new));
+        }
+        if (!removed.isEmpty()) {
+            jdbcTemplate.update(DELETE_POST_TAGS_SQL,
+                    new MapSqlParameterSource("postId", postId).addValue("tagIds", removed));
+        }
+
+        // 按标签ID顺序更新，并发保存的文章以相同顺序锁定 tags 行，避免死锁
+        Map<Long, Integer> deltas = new TreeMap<>();
+        added.forEach(tagId -> deltas.put(tagId, 1));
+        removed.forEach(tagId -> deltas.put(tagId, -1));
+        jdbcTemplate.batchUpdate(UPDATE_USE_COUNT_SQL, deltas.entrySet().stream()
+                .map(delta -> new MapSqlParameterSource("id", delta.getKey()).addValue("delta", delta.getValue()))
+                .toArray(SqlParameterSource[]::new));
+
+        List<Long> changed = new ArrayList<>(added);
+        changed.addAll(removed);
+        jdbcTemplate.query(SELECT_TAGS_BY_ID_SQL, new MapSqlParameterSource("ids", changed), rs -> {
+            eventPublisher.publishEvent(new TagChangedEvent(
+                    rs.getLong("id"), rs.getString("name"), rs.getInt("use_count")));
+        });
+    }
+
+    /**
+     * 为尚未建立 post_tags 关联的历史文章回填标签关联和使用次数（每次处理一块）
+     *
+     * @param afterId 从该ID之后开始
+     * @param chunkSize 每块条数
+     * @return 本块最后处理的文章ID，没有待处理文章时返回 null
+     */
+    @Transactional
+    public Long backfillPostTags(Long afterId, int chunkSize) {
+        List<Map.Entry<Long, String>> posts = jdbcTemplate.query(SELECT_POSTS_WITHOUT_TAGS_SQL,
+                new MapSqlParameterSource("afterId", afterId).addValue("limit", chunkSize),
+                (rs, rowNum) -> Map.entry(rs.getLong("id"), rs.getString("tags")));
+        if (posts.isEmpty()) {
+            return null;
+        }
+        posts.forEach(post -> syncPostTags(post.getKey(), post.getValue()));
+        return posts.get(posts.size() - 1).getKey();
+    }
+
+    /**
+     * 创建标签字符串中尚不存在的标签（在单独的短事务中，须在文章事务开始前调用）
+     *
+     * 说明：
+     * - 两个事务同时插入同名标签时，后者在唯一索引上等待前者提交，然后以重复键失败（NOT EXISTS 看不到未提交的行）；
+     *   若在文章事务中插入，重复键或死锁会回滚整个文章保存，因此新标签提前在这里创建，重复的名称忽略
+     * - 文章事务在本事务提交之后开始，在可重复读隔离级别下也能查到这里创建（或并发事务已提交）的标签
+     * - 按名称排序插入，并发创建多个标签时以相同顺序加锁，避免死锁
+     * - 文章保存最终失败时，已创建的标签保留（使用次数为 0）
+     */
+    @Transactional
+    public void createMissingTags(String tags) {
+        List<String> names = new ArrayList<>(parseTagNames(tags).values());
+        Long[] tagIds = findTagIds(names);
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            if (tagIds[i] == null) {
+                missing.add(names.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        missing.sort(null);
+        try {
+            jdbcTemplate.batchUpdate(INSERT_TAG_SQL, missing.stream()
+                    .map(name -> new MapSqlParameterSource("name", name))
+                    .toArray(SqlParameterSource[]::new));
+        } catch (DuplicateKeyException e) {
+            // 并发事务已创建其中的部分标签，逐条重试其余标签
+            for (String name : missing) {
+                try {
+                    jdbcTemplate.update(INSERT_TAG_SQL, new MapSqlParameterSource("name", name));
+                } catch (DuplicateKeyException duplicate) {
+                    // 并发事务已创建同名标签
+                }
+            }
+        }
     }
 
     /**
@@ -65,7 +281,9 @@ public class TagService {
                     Tag tag = new Tag();
                     tag.setName(name);
                     tag.setUseCount(0);
-                    return tagRepository.save(tag);
+                    Tag saved = tagRepository.save(tag);
+                    publishChanged(saved);
+                    return saved;
                 });
     }
 
@@ -76,7 +294,7 @@ public class TagService {
     public void incrementUseCount(Long tagId) {
         tagRepository.findById(tagId).ifPresent(tag -> {
             tag.setUseCount(tag.getUseCount() + 1);
-            tagRepository.save(tag);
+            publishChanged(tagRepository.save(tag));
         });
     }
 
@@ -88,14 +306,62 @@ public class TagService {
         tagRepository.findById(tagId).ifPresent(tag -> {
             int newCount = Math.max(0, tag.getUseCount() - 1);
             tag.setUseCount(newCount);
-            tagRepository.save(tag);
+            publishChanged(tagRepository.save(tag));
+        });
+    }
+
+    /**
+     * 一次查询按名称查找标签ID
+     *
+     * 说明：名称是否相同由数据库的排序规则判断（MySQL 的 utf8mb4_unicode_ci 下不区分大小写和重音），
+     * 结果按名称在请求中的位置对应，不依赖返回行的名称写法
+     *
+     * @return 与 names 顺序一致的标签ID，不存在的为 null
+     */
+    private Long[] findTagIds(List<String> names) {
+        Long[] tagIds = new Long[names.size()];
+        if (names.isEmpty()) {
+            return tagIds;
+        }
+        StringJoiner sql = new StringJoiner(" UNION ALL ");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        for (int i = 0; i < names.size(); i++) {
+            sql.add(String.format(SELECT_TAG_BY_NAME_SQL, i, i));
+            params.addValue("name" + i, names.get(i));
+        }
+        jdbcTemplate.query(sql.toString(), params, rs -> {
+            tagIds[rs.getInt("idx")] = rs.getLong("id");
         });
+        return tagIds;
+    }
+
+    /**
+     * 拆分标签字符串
+     *
+     * @return 小写名称 -> 原始名称（保持输入顺序，重复的名称只保留第一次出现的写法）
+     */
+    private Map<String, String> parseTagNames(String tags) {
+        Map<String, String> names = new LinkedHashMap<>();
+        if (tags == null) {
+            return names;
+        }
+        for (String part : TAG_SEPARATOR.split(tags)) {
+            String name = part.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (name.length() > MAX_NAME_LENGTH) {
+                throw new BadRequestException("标签名称不能超过" + MAX_NAME_LENGTH + "个字符：" + name);
+            }
+            names.putIfAbsent(name.toLowerCase(Locale.ROOT), name);
+        }
+        return names;
     }
 
     /**
-     * 转换为DTO
+     * 发布标签变更事件（事务提交后由 TagSearchIndex、TagCloud 等监听方更新内存数据）
      */
-    private TagDTO convertToDTO(Tag tag) {
-        return new TagDTO(tag.getId(), tag.getName(), tag.getUseCount());
+    private void publishChanged(Tag tag) {
+        eventPublisher.publishEvent(new TagChangedEvent(tag.getId(), tag.getName(), tag.getUseCount()));
     }
 }
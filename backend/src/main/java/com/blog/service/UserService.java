@@ -2,6 +2,7 @@ package com.blog.service;
 
 import com.blog.dto.UpdateProfileRequest;
 import com.blog.dto.UserProfileDTO;
+import com.blog.event.AuthorChangedEvent;
 import com.blog.exception.BadRequestException;
 import com.blog.exception.ResourceNotFoundException;
 import com.blog.model.User;
@@ -9,6 +10,7 @@ import com.blog.repository.FavoriteRepository;
 import com.blog.repository.PostRepository;
 import com.blog.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +29,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final PostRepository postRepository;
     private final FavoriteRepository favoriteRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 获取用户个人资料（含统计数据）
@@ -65,8 +68,11 @@ public class UserService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("用户不存在"));
 
-        // 更新昵称
+        // 更新昵称（昵称作为作者名显示在文章中，变化时通知文章相关缓存失效）
         if (request.getNickname() != null) {
+            if (!request.getNickname().equals(user.getNickname())) {
+                eventPublisher.publishEvent(new AuthorChangedEvent(user.getId()));
+            }
             user.setNickname(request.getNickname());
         }
 
@@ -0,0 +1,246 @@
+package com.blog.service;
+
+import com.blog.event.PostChangedEvent;
+import com.blog.exception.ResourceNotFoundException;
+import com.blog.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 浏览量计数服务
+ *
+ * 功能说明：
+ * - 写回模式（默认）：浏览量先在内存中按文章ID分段累计，定期批量写入数据库
+ * - 同步模式：每次浏览直接执行一条原子 UPDATE（views = views + 1）
+ * - 读取文章时叠加尚未写库的增量，保证返回的浏览量单调递增（写库提交前后均不重复计算、不回退）
+ *
+ * 性能优化说明：
+ * - 原方案：每次浏览执行 findById + save，热门文章详情页变成了行锁写操作
+ * - 优化后：浏览只修改内存计数，每个刷写周期每篇文章最多一条 UPDATE
+ * - 应用正常关闭时会执行最后一次刷写，避免丢失缓冲中的浏览量
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ViewCountService {
+
+    /** 分段数量（2的幂，按文章ID取模选择分段，降低并发冲突） */
+    private static final int STRIPES = 16;
+
+    private static final String FLUSH_SQL = "UPDATE posts SET views = views + ? WHERE id = ?";
+
+    /** 写库尚未提交时的 committedViews，任何数据库读取结果都小于它 */
+    private static final long UNCOMMITTED = Long.MAX_VALUE;
+
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${blog.views.write-behind:true}")
+    private boolean writeBehind;
+
+    @Value("${blog.views.batch-size:500}")
+    private int batchSize;
+
+    /** 待写库的浏览量：文章ID -> 缓冲中及最近一次写库的增量 */
+    @SuppressWarnings("unchecked")
+    private final Map<Long, Pending>[] stripes = new ConcurrentHashMap[STRIPES];
+
+    /**
+     * 启动以来记录的浏览量（只增不减，供文章详情缓存推算最新浏览量）
+     *
+     * 说明：只保存现存文章——文章删除后移除，写库时发现文章已不存在也会移除，大小不超过文章总数
+     */
+    private final Map<Long, Long> recorded = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+
+    {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * 记录一次文章浏览
+     *
+     * @param postId 文章ID
+     */
+    public void recordView(Long postId) {
+        if (!writeBehind) {
+            if (postRepository.incrementViews(postId, 1) == 0) {
+                throw new ResourceNotFoundException("文章", postId);
+            }
+            recorded.merge(postId, 1L, Long::sum);
+            return;
+        }
+        stripeOf(postId).merge(postId, new Pending(1, 0, UNCOMMITTED),
+                (current, one) -> new Pending(current.buffered() + 1, current.writing(), current.committedViews()));
+        recorded.merge(postId, 1L, Long::sum);
+    }
+
+    /**
+     * 获取文章尚未写入数据库的浏览量增量
+     *
+     * 说明：正在写库的增量是否需要叠加取决于调用方读到的浏览量是否已包含该次写库——
+     * 写库事务提交前先记下提交后的浏览量，读到的值不小于它即说明已包含，
+     * 因此写库前后任意时刻 persistedViews + 返回值 都不会重复计算或回退
+     *
+     * @param postId 文章ID
+     * @param persistedViews 调用方从数据库读到的浏览量
+     * @return 待写库的增量（缓冲中 + 数据库读取结果尚未包含的写库中增量）
+     */
+    public long getPendingViews(Long postId, long persistedViews) {
+        Pending pending = stripeOf(postId).get(postId);
+        if (pending == null) {
+            return 0;
+        }
+        return pending.buffered() + (persistedViews >= pending.committedViews() ? 0 : pending.writing());
+    }
+
+    /**
+     * 获取文章启动以来记录的浏览量
+     *
+     * 说明：缓存方在加载时记下 (当前浏览量 - 该值)，之后任意时刻加上该值即为最新浏览量，
+     * 不受写库时机影响
+     *
+     * @param postId 文章ID
+     * @return 累计记录的浏览量
+     */
+    public long getRecordedViews(Long postId) {
+        return recorded.getOrDefault(postId, 0L);
+    }
+
+    /**
+     * 定期将缓冲的浏览量批量写入数据库
+     *
+     * 说明：
+     * - 每篇有增量的文章生成一条 UPDATE posts SET views = views + ? WHERE id = ?
+     * - 按 batch-size 分批，每批在一个事务中以 JDBC batch 方式提交，失败时整批回滚，不会部分写入后再重试导致重复计数
+     * - 提交前在同一事务中读回更新后的浏览量，供 getPendingViews 判断读取方是否已看到本次写库
+     * - 写库失败的增量会放回缓冲，等待下个周期重试
+     */
+    @Scheduled(fixedDelayString = "${blog.views.flush-interval:5000}")
+    public void flush() {
+        if (!writeBehind) {
+            return;
+        }
+        synchronized (flushLock) {
+            Map<Long, Long> drained = drain();
+            if (drained.isEmpty()) {
+                return;
+            }
+
+            List<Map.Entry<Long, Long>> entries = new ArrayList<>(drained.entrySet());
+            for (int from = 0; from < entries.size(); from += batchSize) {
+                List<Map.Entry<Long, Long>> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(batch));
+                } catch (DataAccessException | TransactionException e) {
+                    log.warn("浏览量批量写库失败，将在下个周期重试 - 文章数: {}", batch.size(), e);
+                    batch.forEach(entry -> stripeOf(entry.getKey()).computeIfPresent(entry.getKey(), (id, pending) ->
+                            new Pending(pending.buffered() + pending.writing(), 0, UNCOMMITTED)));
+                }
+            }
+            log.debug("浏览量写库完成 - 文章数: {}", entries.size());
+        }
+    }
+
+    /**
+     * 文章删除后丢弃其缓冲的增量和累计记录
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.type() == PostChangedEvent.Type.DELETED) {
+            stripeOf(event.postId()).remove(event.postId());
+            recorded.remove(event.postId());
+        }
+    }
+
+    /**
+     * 应用关闭前刷写剩余的浏览量
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * 在当前事务中写入一批增量，并在提交前记下每篇文章提交后的浏览量
+     */
+    private void write(List<Map.Entry<Long, Long>> batch) {
+        jdbcTemplate.batchUpdate(FLUSH_SQL, batch, batch.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+        });
+        // 事务持有这些行的写锁，读回的值即提交后的值
+        Map<Long, Long> committed = new HashMap<>();
+        String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+        jdbcTemplate.query("SELECT id, views FROM posts WHERE id IN (" + placeholders + ")",
+                rs -> {
+                    committed.put(rs.getLong(1), rs.getLong(2));
+                },
+                batch.stream().map(Map.Entry::getKey).toArray());
+        for (Map.Entry<Long, Long> entry : batch) {
+            Long views = committed.get(entry.getKey());
+            if (views == null) {
+                recorded.remove(entry.getKey());
+            }
+            stripeOf(entry.getKey()).computeIfPresent(entry.getKey(), (id, pending) -> views == null
+                    // 文章已删除，增量丢弃
+                    ? (pending.buffered() == 0 ? null : new Pending(pending.buffered(), 0, UNCOMMITTED))
+                    : new Pending(pending.buffered(), pending.writing(), views));
+        }
+    }
+
+    /**
+     * 将所有分段中缓冲的增量转为写库中，并清除上一轮已提交且没有新增量的文章
+     *
+     * 说明：每篇文章的缓冲量和写库量保存在同一个不可变对象中，转移是一次原子替换，读取方不会看到重复或遗漏
+     */
+    private Map<Long, Long> drain() {
+        Map<Long, Long> drained = new HashMap<>();
+        for (Map<Long, Pending> stripe : stripes) {
+            for (Long postId : stripe.keySet()) {
+                stripe.computeIfPresent(postId, (id, pending) -> {
+                    if (pending.buffered() == 0) {
+                        return null;
+                    }
+                    drained.put(id, pending.buffered());
+                    return new Pending(0, pending.buffered(), UNCOMMITTED);
+                });
+            }
+        }
+        return drained;
+    }
+
+    private Map<Long, Pending> stripeOf(Long postId) {
+        return stripes[Long.hashCode(postId) & (STRIPES - 1)];
+    }
+
+    /**
+     * 单篇文章待写库的浏览量
+     *
+     * @param buffered 缓冲中尚未写库的增量
+     * @param writing 最近一轮写库的增量（保留到下一轮，供写库前读到浏览量的调用方叠加）
+     * @param committedViews 最近一轮写库提交后的浏览量；尚未写入时为 UNCOMMITTED
+     */
+    private record Pending(long buffered, long writing, long committedViews) {
+    }
+}
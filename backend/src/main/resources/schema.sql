@@ -34,6 +34,10 @@ CREATE TABLE IF NOT EXISTS posts (
     author_id BIGINT NOT NULL,
     published BOOLEAN NOT NULL DEFAULT FALSE,
     views INT NOT NULL DEFAULT 0,
+    -- 冗余计数（原子增减维护，定期对账）
+    comment_count INT NOT NULL DEFAULT 0,
+    like_count INT NOT NULL DEFAULT 0,
+    favorite_count INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     tags VARCHAR(1000),
@@ -47,8 +51,8 @@ CREATE TABLE IF NOT EXISTS posts (
     INDEX idx_published_views (published, views DESC),
     INDEX idx_published_created (published, created_at DESC),
     INDEX idx_author_published (author_id, published),
-    -- 全文索引用于搜索
-    FULLTEXT INDEX idx_title_content (title, content)
+    -- 全文索引用于搜索（blog.search.mode=fulltext），ngram 分词支持中文，词长由 ngram_token_size 控制（默认2）
+    FULLTEXT INDEX idx_title_content (title, content) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 CREATE TABLE IF NOT EXISTS comments (
@@ -59,6 +63,9 @@ CREATE TABLE IF NOT EXISTS comments (
     content TEXT NOT NULL,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     deleted BOOLEAN NOT NULL DEFAULT FALSE,
+    -- 物化路径：根评论到本评论的定长base36 ID链，子树查询/计数/分页均为 path 上的范围扫描
+    path VARCHAR(1000) CHARACTER SET ascii COLLATE ascii_bin,
+    depth INT,
     FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (parent_id) REFERENCES comments(id) ON DELETE CASCADE,
@@ -68,7 +75,10 @@ CREATE TABLE IF NOT EXISTS comments (
     INDEX idx_created_at (created_at),
     -- 复合索引用于优化评论查询（根评论和统计）
     INDEX idx_post_deleted_parent (post_id, deleted, parent_id),
-    INDEX idx_parent_deleted (parent_id, deleted)
+    INDEX idx_parent_deleted (parent_id, deleted),
+    INDEX idx_path (path),
+    -- 文章内的路径范围扫描（一页根评论的回复树）
+    INDEX idx_post_path (post_id, path)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 CREATE TABLE IF NOT EXISTS likes (
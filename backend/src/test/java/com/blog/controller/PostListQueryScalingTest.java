@@ -0,0 +1,102 @@
+package com.blog.controller;
+
+import com.blog.config.SqlStatementCounter;
+import com.blog.dto.CreateCommentRequest;
+import com.blog.dto.CreatePostRequest;
+import com.blog.dto.PostDTO;
+import com.blog.dto.RegisterRequest;
+import com.blog.repository.TagRepository;
+import com.blog.service.AuthService;
+import com.blog.service.CommentService;
+import com.blog.service.LikeService;
+import com.blog.service.PostService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 列表页SQL语句数随每页条数变化的基准测试
+ *
+ * 说明：每篇文章都有评论和点赞，按 1 ~ 50 条/页依次请求，语句数必须保持不变——
+ * 评论数、点赞数等统计来自冗余计数列或按页批量查询，不随卡片数增加
+ */
+@SpringBootTest(properties = {"spring.sql.init.mode=never", "spring.jpa.show-sql=false"})
+@AutoConfigureMockMvc(addFilters = false)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PostListQueryScalingTest {
+
+    private static final String USERNAME = "scaling";
+    private static final int POSTS = 50;
+    private static final int[] PAGE_SIZES = {1, 5, 10, 20, 50};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    private Long tagId;
+
+    @BeforeAll
+    void seed() {
+        authService.register(new RegisterRequest(USERNAME, "scaling@example.com", "password", "分页"));
+        for (int i = 0; i < POSTS; i++) {
+            CreatePostRequest request = new CreatePostRequest();
+            request.setTitle("分页文章 " + i);
+            request.setContent("scaling page size content " + i);
+            request.setPublished(true);
+            request.setTags("scaling");
+            PostDTO post = postService.createPost(request, USERNAME);
+            commentService.createComment(new CreateCommentRequest(post.getId(), null, "评论"), USERNAME);
+            likeService.likePost(post.getId(), USERNAME);
+        }
+        tagId = tagRepository.findByName("scaling").orElseThrow().getId();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/posts?size=%d", "/posts/search?keyword=scaling&size=%d", "/tags/%s/posts?size=%d"})
+    void statementCountIndependentOfPageSize(String template) throws Exception {
+        IntFunction<String> url = size -> template.contains("/tags/")
+                ? String.format(template, tagId, size) : String.format(template, size);
+        List<Integer> counts = new ArrayList<>();
+        for (int size : PAGE_SIZES) {
+            counts.add(countStatements(url.apply(size)));
+        }
+        for (int i = 1; i < counts.size(); i++) {
+            assertEquals(counts.get(0), counts.get(i),
+                    "SQL语句数随每页条数变化 - " + template + " 各页大小 " + Arrays.toString(PAGE_SIZES) + ": " + counts);
+        }
+    }
+
+    private int countStatements(String url) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return SqlStatementCounter.getCount();
+    }
+}
@@ -0,0 +1,124 @@
+package com.blog.controller;
+
+import com.blog.config.SqlStatementCounter;
+import com.blog.dto.CreateCommentRequest;
+import com.blog.dto.CreatePostRequest;
+import com.blog.dto.PostDTO;
+import com.blog.dto.RegisterRequest;
+import com.blog.model.Category;
+import com.blog.repository.TagRepository;
+import com.blog.service.AuthService;
+import com.blog.service.CategoryService;
+import com.blog.service.CommentService;
+import com.blog.service.PostService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 文章列表/详情/搜索/标签/归档接口的SQL语句数测试
+ *
+ * 说明：MockMvc 在测试线程中执行请求，SqlStatementCounter 的计数即为单个请求经过 Hibernate 执行的语句数；
+ * 不加载过滤器（SqlStatementCountFilter 会在请求结束时清除计数），匿名请求的认证过滤器本身也不查库。
+ * 语句数与数据量无关，增加一条即说明出现了新的逐条查询（N+1）
+ */
+@SpringBootTest(properties = {"spring.sql.init.mode=never", "spring.jpa.show-sql=false"})
+@AutoConfigureMockMvc(addFilters = false)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PostQueryCountTest {
+
+    private static final String USERNAME = "counter";
+    private static final int POSTS = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    private Long postId;
+    private Long tagId;
+
+    @BeforeAll
+    void seed() {
+        authService.register(new RegisterRequest(USERNAME, "counter@example.com", "password", "计数"));
+        Category category = new Category();
+        category.setName("计数分类");
+        Long categoryId = categoryService.createCategory(category).getId();
+
+        for (int i = 0; i < POSTS; i++) {
+            CreatePostRequest request = new CreatePostRequest();
+            request.setTitle("计数文章 " + i);
+            request.setContent("counting statements content " + i);
+            request.setCategoryId(categoryId);
+            request.setPublished(true);
+            request.setTags("counting,counting" + i);
+            PostDTO post = postService.createPost(request, USERNAME);
+            postId = post.getId();
+            for (int j = 0; j < 2; j++) {
+                commentService.createComment(new CreateCommentRequest(post.getId(), null, "评论 " + j), USERNAME);
+            }
+        }
+        tagId = tagRepository.findByName("counting").orElseThrow().getId();
+    }
+
+    @Test
+    void listPublishedPosts() throws Exception {
+        // 列表卡片投影 + 总数
+        assertStatements(2, "/posts?size=10");
+    }
+
+    @Test
+    void postDetail() throws Exception {
+        // 首次读取一次连接查询加载文章及作者、分类，之后命中详情缓存
+        assertStatements(1, "/posts/" + postId);
+        assertStatements(0, "/posts/" + postId);
+    }
+
+    @Test
+    void searchPosts() throws Exception {
+        // 索引命中后按ID读取列表卡片 + 读取正文生成摘要片段
+        assertStatements(2, "/posts/search?keyword=counting");
+    }
+
+    @Test
+    void postsByTag() throws Exception {
+        // 列表卡片投影 + 总数
+        assertStatements(2, "/tags/" + tagId + "/posts");
+    }
+
+    @Test
+    void postsByYearMonth() throws Exception {
+        LocalDate now = LocalDate.now();
+        // 总数来自归档统计缓存，只查询当前页
+        assertStatements(1, "/posts/archives/" + now.getYear() + "/" + now.getMonthValue());
+    }
+
+    private void assertStatements(int expected, String url) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        assertEquals(expected, SqlStatementCounter.getCount(), "SQL语句数 - GET " + url);
+    }
+}
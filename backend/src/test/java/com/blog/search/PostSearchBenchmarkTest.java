@@ -0,0 +1,142 @@
+package com.blog.search;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 内存倒排索引与 LIKE 模糊搜索的性能对比（10万篇文章）
+ *
+ * 说明：
+ * - 默认不执行，使用 mvn test -Dtest=PostSearchBenchmarkTest -Dbenchmark=true 运行
+ * - LIKE 基线在 H2 内存库上执行原 searchPublishedPosts 的两条语句（分页 + 计数），
+ *   不含网络往返，MySQL 上对 TEXT 列的全表扫描只会更慢
+ * - 每个查询先预热，再取多次执行的平均耗时
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PostSearchBenchmarkTest {
+
+    private static final int POSTS = 100_000;
+    private static final int WORDS_PER_POST = 120;
+    private static final int VOCABULARY = 20_000;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    private static final String LIKE_PAGE_SQL = "SELECT id, title FROM posts WHERE published = TRUE AND " +
+            "(LOWER(title) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(content) LIKE LOWER(CONCAT('%', ?, '%'))) " +
+            "ORDER BY created_at DESC LIMIT 10";
+
+    private static final String LIKE_COUNT_SQL = "SELECT COUNT(*) FROM posts WHERE published = TRUE AND " +
+            "(LOWER(title) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(content) LIKE LOWER(CONCAT('%', ?, '%')))";
+
+    private final PostSearchIndex index = new PostSearchIndex(null);
+    private Connection connection;
+
+    @BeforeAll
+    void load() throws SQLException {
+        ReflectionTestUtils.setField(index, "titleBoost", 3.0f);
+        connection = DriverManager.getConnection("jdbc:h2:mem:search-benchmark", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE posts (id BIGINT PRIMARY KEY, title VARCHAR(200), content CLOB, " +
+                    "published BOOLEAN, created_at TIMESTAMP)");
+        }
+
+        Random random = new Random(42);
+        long start = System.currentTimeMillis();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO posts VALUES (?, ?, ?, TRUE, DATEADD('SECOND', ?, TIMESTAMP '2020-01-01 00:00:00'))")) {
+            for (int id = 1; id <= POSTS; id++) {
+                String title = words(random, 6);
+                String content = words(random, WORDS_PER_POST);
+                insert.setLong(1, id);
+                insert.setString(2, title);
+                insert.setString(3, content);
+                insert.setInt(4, id);
+                insert.addBatch();
+                if (id % 1000 == 0) {
+                    insert.executeBatch();
+                }
+                index.index(new SearchDocument((long) id, title, null, content, null));
+            }
+        }
+        System.out.printf("加载 %d 篇文章耗时 %dms%n", POSTS, System.currentTimeMillis() - start);
+    }
+
+    @AfterAll
+    void close() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void indexIsFasterThanLike() throws SQLException {
+        // 词频按 Zipf 分布，w1 最常见、w15000 很少见；最后一个为两个词的 AND 查询
+        String[] queries = {"w1", "w30", "w800", "w15000", "w30 w800"};
+        System.out.printf("%-12s %10s %12s %12s %8s%n", "查询", "命中数", "索引(ms)", "LIKE(ms)", "倍数");
+        for (String query : queries) {
+            int[] total = new int[1];
+            double indexMillis = time(() -> total[0] = index.search(query, 10).total());
+            // LIKE 只能匹配一个子串，多词查询以第一个词计时（对 LIKE 有利）
+            double likeMillis = time(() -> like(query.split(" ")[0]));
+            System.out.printf("%-12s %10d %12.3f %12.3f %8.0f%n",
+                    query, total[0], indexMillis, likeMillis, likeMillis / indexMillis);
+            assertTrue(indexMillis < likeMillis, "索引查询应快于 LIKE - " + query);
+        }
+    }
+
+    private void like(String keyword) {
+        try {
+            for (String sql : new String[]{LIKE_PAGE_SQL, LIKE_COUNT_SQL}) {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setString(1, keyword);
+                    statement.setString(2, keyword);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            rs.getLong(1);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double time(Runnable query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+
+    /**
+     * 按近似 Zipf 分布生成随机词（w1 出现最多）
+     */
+    private static String words(Random random, int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int rank = (int) Math.pow(VOCABULARY, random.nextDouble());
+            words.add("w" + rank);
+        }
+        return String.join(" ", words);
+    }
+}
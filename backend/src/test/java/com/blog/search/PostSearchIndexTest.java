@@ -0,0 +1,68 @@
+package com.blog.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 内存倒排索引的编号回收和结果空间测试
+ */
+class PostSearchIndexTest {
+
+    private PostSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PostSearchIndex(null);
+        ReflectionTestUtils.setField(index, "titleBoost", 3.0f);
+    }
+
+    @Test
+    void repeatedUpdatesReuseDocNumbers() {
+        for (int round = 0; round < 500; round++) {
+            for (long id = 1; id <= 20; id++) {
+                String extra = id % 2 == 0 ? " even" : " odd";
+                index.index(new SearchDocument(id, "post " + id, null, "round " + round + extra, null));
+            }
+        }
+
+        // 10000 次写入只有 20 篇存活文章，编号数组不需要扩容
+        assertEquals(1024, ((long[]) ReflectionTestUtils.getField(index, "postIds")).length);
+        PostSearchIndex.SearchHits hits = index.search("even round", 100);
+        assertEquals(10, hits.total());
+        assertEquals(List.of(20L, 18L, 16L, 14L, 12L, 10L, 8L, 6L, 4L, 2L), hits.postIds());
+        assertEquals(0, index.search("round 400", 10).total());
+        assertEquals(20, index.search("round 499", 10).total());
+    }
+
+    @Test
+    void removedDocumentsAreNotReturnedAfterCompaction() {
+        for (long id = 1; id <= 1500; id++) {
+            index.index(new SearchDocument(id, "title " + id, null, "shared body", null));
+        }
+        for (long id = 1; id <= 1400; id++) {
+            index.remove(id);
+        }
+        // 触发回收
+        for (long id = 1501; id <= 2600; id++) {
+            index.index(new SearchDocument(id, "title " + id, null, "shared body", null));
+            index.remove(id);
+        }
+
+        PostSearchIndex.SearchHits hits = index.search("shared", 1000);
+        assertEquals(100, hits.total());
+        assertEquals(1500L, hits.postIds().get(0));
+        assertEquals(1401L, hits.postIds().get(99));
+    }
+
+    @Test
+    void deepLimitDoesNotAllocateBeyondMatches() {
+        index.index(new SearchDocument(1L, "spring", null, "boot", null));
+        PostSearchIndex.SearchHits hits = index.search("spring", Integer.MAX_VALUE);
+        assertEquals(List.of(1L), hits.postIds());
+    }
+}